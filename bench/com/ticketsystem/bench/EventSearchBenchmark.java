@@ -0,0 +1,117 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.EventSearchIndex;
+import com.ticketsystem.repository.EventSearchQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Text search over a large catalog: a {@code LIKE '%..%'}-style scan of every event, as the
+ * database would do it without an index, against {@link EventSearchIndex}. Names and venues are
+ * drawn from fixed word lists, so common words match a few percent of the catalog and rare ones
+ * a handful of events.
+ *
+ * <p>Usage: {@code EventSearchBenchmark [events] [millisPerQuery]}
+ */
+public class EventSearchBenchmark {
+    private static final String[] ADJECTIVES = {
+            "Electric", "Midnight", "Golden", "Silent", "Wild", "Velvet", "Neon", "Crimson", "Broken", "Royal",
+            "Lunar", "Hidden", "Burning", "Frozen", "Savage", "Gentle", "Cosmic", "Rusty", "Silver", "Paper"};
+    private static final String[] NOUNS = {
+            "Rock", "Jazz", "Opera", "Derby", "Ballet", "Symphony", "Cup", "Revue", "Blues", "Choir",
+            "Final", "Festival", "Quartet", "Classic", "Cabaret", "Marathon", "Requiem", "Showcase", "Circus", "Gala"};
+    private static final String[] CITIES = {
+            "Berlin", "Hamburg", "München", "Köln", "Leipzig", "Dresden", "Bremen", "Hannover", "Stuttgart", "Zürich",
+            "Wien", "Graz", "Basel", "Bern", "Prag", "Krakau", "Lyon", "Porto", "Sevilla", "Bologna"};
+
+    public static void main(String[] args) {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long millisPerQuery = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        User organizer = new User(UUID.randomUUID(), "organizer", "secret", "FIRM");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+        EventType[] types = EventType.values();
+        SplittableRandom random = new SplittableRandom(42);
+        List<Event> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " " + Integer.toString(i, 36);
+            String location = "Hall " + random.nextInt(500) + ", " + CITIES[random.nextInt(CITIES.length)];
+            events.add(new Event(name, start.plusMinutes(random.nextInt(3 * 365 * 24 * 60)), location,
+                    types[random.nextInt(types.length)], organizer));
+        }
+        long indexStart = System.nanoTime();
+        EventSearchIndex index = new EventSearchIndex();
+        index.putAll(events);
+        System.out.printf("%,d events indexed in %d ms%n", eventCount, (System.nanoTime() - indexStart) / 1_000_000);
+
+        LocalDateTime from = start.plusMonths(6);
+        LocalDateTime to = start.plusMonths(7);
+        String rare = Integer.toString(eventCount / 2, 36);
+        System.out.printf("%-44s %12s %10s%n", "query", "us/op", "hits");
+        run("scan \"rock\" (before)", millisPerQuery, () -> scan(events, "rock"));
+        run("scan \"berlin\" + date range (before)", millisPerQuery, () -> scanInRange(events, "berlin", from, to));
+        run("index \"" + rare + "\" (one event)", millisPerQuery,
+                () -> index.search(EventSearchQuery.text(rare, 50)).totalHits());
+        run("index \"ro\" (typeahead)", millisPerQuery,
+                () -> index.search(EventSearchQuery.text("ro", 50)).totalHits());
+        run("index \"rock\"", millisPerQuery,
+                () -> index.search(EventSearchQuery.text("rock", 50)).totalHits());
+        run("index \"neon rock ber\"", millisPerQuery,
+                () -> index.search(EventSearchQuery.text("neon rock ber", 50)).totalHits());
+        run("index \"berlin\" + date range + CONCERT", millisPerQuery,
+                () -> index.search(new EventSearchQuery("berlin", Set.of(EventType.CONCERT), from, to, 50)).totalHits());
+    }
+
+    private static int scan(List<Event> events, String text) {
+        int hits = 0;
+        for (Event event : events) {
+            if (event.getName().toLowerCase(Locale.ROOT).contains(text)
+                    || event.getLocation().toLowerCase(Locale.ROOT).contains(text)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private static int scanInRange(List<Event> events, String text, LocalDateTime from, LocalDateTime to) {
+        int hits = 0;
+        for (Event event : events) {
+            if (!event.getDate().isBefore(from) && !event.getDate().isAfter(to)
+                    && (event.getName().toLowerCase(Locale.ROOT).contains(text)
+                    || event.getLocation().toLowerCase(Locale.ROOT).contains(text))) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private static void run(String name, long millis, IntSupplier query) {
+        // Warm up for a quarter of the time, then measure
+        long warmupEnd = System.nanoTime() + millis * 250_000;
+        while (System.nanoTime() < warmupEnd) {
+            query.getAsInt();
+        }
+        int hits = 0;
+        long ops = 0;
+        long begin = System.nanoTime();
+        long end = begin + millis * 1_000_000;
+        long now;
+        do {
+            hits = query.getAsInt();
+            ops++;
+            now = System.nanoTime();
+        } while (now < end);
+        System.out.printf("%-44s %12.1f %10d%n", name, (now - begin) / 1e3 / ops, hits);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ticketsystem.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Supplier;
+
+/**
+ * Minimal throughput harness: runs an operation on a fixed number of threads for a warmup and a
+ * measurement window and reports ops/s, average latency and bytes allocated per operation.
+ */
+final class Harness {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT cannot drop the measured work
+    private static volatile int sink;
+
+    private final long warmupMillis;
+    private final long measureMillis;
+
+    Harness(long warmupMillis, long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    Result run(String name, int threadCount, Supplier<Supplier<Object>> operationPerThread) throws InterruptedException {
+        CyclicBarrier start = new CyclicBarrier(threadCount);
+        long[] ops = new long[threadCount];
+        long[] allocated = new long[threadCount];
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            int worker = i;
+            Supplier<Object> operation = operationPerThread.get();
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    loop(operation, System.currentTimeMillis() + warmupMillis);
+
+                    long threadId = Thread.currentThread().threadId();
+                    long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+                    ops[worker] = loop(operation, System.currentTimeMillis() + measureMillis);
+                    allocated[worker] = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, name + "-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < threadCount; i++) {
+            totalOps += ops[i];
+            totalBytes += allocated[i];
+        }
+        return new Result(name, threadCount, totalOps, measureMillis, totalBytes);
+    }
+
+    private static long loop(Supplier<Object> operation, long deadline) {
+        long count = 0;
+        int local = 0;
+        do {
+            // Check the clock every 256 calls to keep it out of the measured cost
+            for (int i = 0; i < 256; i++) {
+                Object result = operation.get();
+                local += result == null ? 0 : System.identityHashCode(result);
+            }
+            count += 256;
+        } while (System.currentTimeMillis() < deadline);
+        sink += local;
+        return count;
+    }
+
+    record Result(String name, int threads, long ops, long millis, long allocatedBytes) {
+        double opsPerSecond() {
+            return ops * 1000.0 / millis;
+        }
+
+        double nanosPerOp() {
+            return threads * millis * 1_000_000.0 / ops;
+        }
+
+        double bytesPerOp() {
+            return (double) allocatedBytes / ops;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %3d %15.0f %12.1f %12.1f", name, threads, opsPerSecond(), nanosPerOp(), bytesPerOp());
+        }
+    }
+}
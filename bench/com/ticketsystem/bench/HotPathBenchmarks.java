@@ -0,0 +1,168 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.CachingEventRepository;
+import com.ticketsystem.repository.IndexedEventRepository;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.service.AvailabilityFeed;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.ReservationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the reservation and search hot paths, run against the in-memory repositories.
+ * Each benchmark runs single-threaded and contended. Login is measured by {@link LoginBenchmark},
+ * since every login runs a full PBKDF2 check.
+ *
+ * <p>Usage: {@code HotPathBenchmarks [threads] [warmupMillis] [measureMillis]}
+ */
+public class HotPathBenchmarks {
+    private static final int EVENT_COUNT = 10_000;
+    private static final int CATEGORIES_PER_EVENT = 4;
+    private static final int USER_COUNT = 1_000;
+    // Events the availability scan cycles through, loaded up front; the in-memory findAllByEvent is a full scan
+    private static final int AVAILABILITY_EVENTS = 256;
+    private static final int LARGE_STOCK = Integer.MAX_VALUE / 2;
+    private static final int POWER_USER_RESERVATIONS = 500;
+
+    private final List<Event> events = new ArrayList<>();
+    private final List<TicketCategory> categories = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private final EventService eventService;
+    private final ReservationService reservationService;
+
+    HotPathBenchmarks() throws IOException {
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        InMemoryReservationRepository reservationRepository = new InMemoryReservationRepository();
+
+        User organizer = new User("organizer", "secret", "FIRM");
+        // Only their ids are used, so the stored hash can be a placeholder
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(new User(UUID.randomUUID(), "user" + i, "unused", "USER"));
+        }
+
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event event = new Event("Event " + i, start.plusHours(i), "Venue " + (i % 100), EventType.values()[i % 3], organizer);
+            eventRepository.save(event);
+            events.add(event);
+            for (int c = 0; c < CATEGORIES_PER_EVENT; c++) {
+                TicketCategory category = new TicketCategory("Tier " + c, event, 5_000 + c * 2_500, LARGE_STOCK);
+                ticketCategoryRepository.save(category);
+                categories.add(category);
+            }
+        }
+
+        // Same decorator stack as TicketReservationAPI
+        this.eventService = new EventService(new IndexedEventRepository(new CachingEventRepository(eventRepository)));
+        Path journalFile = Files.createTempFile("bench-reservations", ".journal");
+        journalFile.toFile().deleteOnExit();
+        this.reservationService = new ReservationService(eventService, reservationRepository, ticketCategoryRepository,
+                new ReservationJournal(journalFile, reservationRepository));
+        for (int i = 0; i < POWER_USER_RESERVATIONS; i++) {
+            TicketCategory category = categories.get(i * 7 % categories.size());
+            reservationService.createReservation(category.getEvent().getEventId(), category.getCategoryId(), 2,
+                    users.get(0).getUserId());
+        }
+        for (int i = 0; i < AVAILABILITY_EVENTS; i++) {
+            reservationService.getEventAvailability(events.get(i).getEventId());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long warmupMillis = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+        long measureMillis = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+
+        HotPathBenchmarks benchmarks = new HotPathBenchmarks();
+        Harness harness = new Harness(warmupMillis, measureMillis);
+
+        System.out.printf("%-40s %3s %15s %12s %12s%n", "benchmark", "thr", "ops/s", "ns/op", "B/op");
+        for (int threadCount : new int[]{1, threads}) {
+            System.out.println(harness.run("createReservation.sameCategory", threadCount, benchmarks::createReservationSameCategory));
+            AvailabilityFeed.Subscription watcher = benchmarks.watchFirstEvent();
+            System.out.println(harness.run("createReservation.watched", threadCount, benchmarks::createReservationSameCategory));
+            watcher.close();
+            System.out.println(harness.run("createReservation.randomCategory", threadCount, benchmarks::createReservationRandomCategory));
+            System.out.println(harness.run("searchEventsByTimeInterval.week", threadCount, benchmarks::searchEventsByTimeInterval));
+            System.out.println(harness.run("reservationHistory.powerUser", threadCount, benchmarks::reservationHistory));
+            System.out.println(harness.run("eventAvailability", threadCount, benchmarks::eventAvailability));
+            System.out.println(harness.run("reserveTickets.shared", threadCount, benchmarks::reserveTicketsShared));
+        }
+        benchmarks.reservationService.shutdown();
+    }
+
+    private Supplier<Object> createReservationSameCategory() {
+        TicketCategory category = categories.get(0);
+        UUID eventId = category.getEvent().getEventId();
+        UUID categoryId = category.getCategoryId();
+        return () -> reservationService.createReservation(eventId, categoryId, 1, null);
+    }
+
+    /**
+     * Subscribes to the availability of the first event and drains it on a thread of its own, as
+     * a streaming client would.
+     */
+    private AvailabilityFeed.Subscription watchFirstEvent() {
+        AvailabilityFeed.Subscription subscription =
+                reservationService.subscribeToAvailability(categories.get(0).getEvent().getEventId());
+        Thread.ofVirtual().start(() -> {
+            try {
+                while (!subscription.isClosed()) {
+                    subscription.poll(Duration.ofSeconds(1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return subscription;
+    }
+
+    private Supplier<Object> createReservationRandomCategory() {
+        return () -> {
+            TicketCategory category = categories.get(ThreadLocalRandom.current().nextInt(categories.size()));
+            return reservationService.createReservation(category.getEvent().getEventId(), category.getCategoryId(), 1, null);
+        };
+    }
+
+    private Supplier<Object> searchEventsByTimeInterval() {
+        return () -> {
+            Event from = events.get(ThreadLocalRandom.current().nextInt(events.size() - 168));
+            return eventService.searchEventsByTimeInterval(from.getDate(), from.getDate().plusDays(7));
+        };
+    }
+
+    private Supplier<Object> reservationHistory() {
+        UUID userId = users.get(0).getUserId();
+        return () -> reservationService.getReservationsByUserId(userId);
+    }
+
+    private Supplier<Object> eventAvailability() {
+        return () -> reservationService.getEventAvailability(
+                events.get(ThreadLocalRandom.current().nextInt(AVAILABILITY_EVENTS)).getEventId());
+    }
+
+    private Supplier<Object> reserveTicketsShared() {
+        TicketCategory category = categories.get(1);
+        return () -> {
+            if (!category.reserveTickets(1)) {
+                category.updateAvailability(LARGE_STOCK);
+            }
+            return category;
+        };
+    }
+}
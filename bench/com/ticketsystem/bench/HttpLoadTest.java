@@ -0,0 +1,139 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.api.ApplicationContext;
+import com.ticketsystem.api.HttpTicketReservationAPI;
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for {@link HttpTicketReservationAPI}. Starts the server on in-memory repositories
+ * and keeps the requested number of clients, each on its own virtual thread, sending a mix of
+ * search, availability and reservation requests.
+ *
+ * <p>Usage: {@code HttpLoadTest [clients] [seconds]}
+ */
+public class HttpLoadTest {
+    private static final int EVENT_COUNT = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        User organizer = new User("organizer", "secret", "FIRM");
+        List<TicketCategory> categories = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event event = new Event("Event " + i, start.plusHours(i), "Venue " + (i % 50), EventType.CONCERT, organizer);
+            eventRepository.save(event);
+            for (int c = 0; c < 3; c++) {
+                TicketCategory category = new TicketCategory("Tier " + c, event, 4_000 + c * 3_000, Integer.MAX_VALUE / 2);
+                ticketCategoryRepository.save(category);
+                categories.add(category);
+            }
+        }
+
+        ApplicationContext context = new ApplicationContext(new InMemoryUserRepository(), eventRepository,
+                ticketCategoryRepository, new InMemoryReservationRepository());
+        HttpTicketReservationAPI api = new HttpTicketReservationAPI(context);
+        api.start(0);
+        String base = "http://localhost:" + api.getPort() + "/api/";
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                clientThreads.execute(() -> {
+                    long[] samples = new long[1 << 16];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        TicketCategory category = categories.get(random.nextInt(categories.size()));
+                        long begin = System.nanoTime();
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        try {
+                            int status = switch (random.nextInt(3)) {
+                                case 0 -> request("GET", base + "events?from=" + start.plusHours(random.nextInt(EVENT_COUNT))
+                                        + "&to=" + start.plusHours(EVENT_COUNT) + "&limit=20", null);
+                                case 1 -> request("GET", base + "events/" + category.getEvent().getEventId() + "/categories", null);
+                                default -> request("POST", base + "reservations", "{\"eventId\":\"" + category.getEvent().getEventId()
+                                        + "\",\"categoryId\":\"" + category.getCategoryId() + "\",\"quantity\":1}");
+                            };
+                            if (status == 200) {
+                                completed.increment();
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (IOException e) {
+                            failed.increment();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        if (count < samples.length) {
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                    }
+                    latencies.add(Arrays.copyOf(samples, count));
+                });
+            }
+        }
+        api.stop();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d duration=%ds completed=%d failed=%d throughput=%.0f req/s maxInFlight=%d%n",
+                clients, seconds, completed.sum(), failed.sum(), completed.sum() / (double) seconds, maxInFlight.get());
+        if (all.length > 0) {
+            System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static int request(String method, String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                in.readAllBytes();
+            }
+        }
+        return status;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.repository.EventCursor;
+import com.ticketsystem.repository.EventSearchIndex;
+import com.ticketsystem.repository.EventSearchQuery;
+import com.ticketsystem.repository.EventSearchResult;
+import com.ticketsystem.repository.IEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+class InMemoryEventRepository extends InMemoryRepository<Event> implements IEventRepository<Event, UUID> {
+
+    InMemoryEventRepository() {
+        super(Event::getEventId);
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate) {
+        return rows.values().stream()
+                .filter(event -> !event.getDate().isBefore(startDate) && !event.getDate().isAfter(endDate))
+                .toList();
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit) {
+        return rows.values().stream()
+                .filter(event -> !event.getDate().isBefore(startDate) && !event.getDate().isAfter(endDate))
+                .filter(event -> after == null || EventCursor.after(event).compareTo(after) > 0)
+                .sorted((a, b) -> EventCursor.after(a).compareTo(EventCursor.after(b)))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Event> findEventsByOrganizer(UUID organizerId) {
+        return rows.values().stream()
+                .filter(event -> organizerId.equals(event.getOrganizer().getUserId()))
+                .toList();
+    }
+
+    @Override
+    public EventSearchResult search(EventSearchQuery query) {
+        EventSearchIndex index = new EventSearchIndex();
+        index.putAll(rows.values());
+        return index.search(query);
+    }
+}
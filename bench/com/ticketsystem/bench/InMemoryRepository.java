@@ -0,0 +1,68 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.repository.BatchResult;
+import com.ticketsystem.repository.IRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Map-backed stand-in for the JDBC repositories so the benchmarks run without PostgreSQL.
+ */
+abstract class InMemoryRepository<T> implements IRepository<T, UUID> {
+    protected final ConcurrentSkipListMap<UUID, T> rows = new ConcurrentSkipListMap<>();
+    private final Function<T, UUID> idOf;
+
+    protected InMemoryRepository(Function<T, UUID> idOf) {
+        this.idOf = idOf;
+    }
+
+    @Override
+    public void save(T obj) {
+        rows.put(idOf.apply(obj), obj);
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<T> objs, int chunkSize) {
+        long start = System.nanoTime();
+        objs.forEach(this::save);
+        return new BatchResult(objs.size(), List.of(System.nanoTime() - start));
+    }
+
+    @Override
+    public Optional<T> findById(UUID id) {
+        return Optional.ofNullable(rows.get(id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(rows.values());
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return rows.values().stream();
+    }
+
+    @Override
+    public List<T> findPage(UUID afterId, int limit) {
+        Collection<T> tail = afterId == null ? rows.values() : rows.tailMap(afterId, false).values();
+        return tail.stream().limit(limit).toList();
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        rows.remove(id);
+    }
+
+    @Override
+    public void update(UUID id, T newObj) {
+        rows.replace(id, newObj);
+    }
+}
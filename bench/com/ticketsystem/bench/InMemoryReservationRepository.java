@@ -0,0 +1,89 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.repository.IReservationRepository;
+import com.ticketsystem.repository.JournalEntry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class InMemoryReservationRepository extends InMemoryRepository<Reservation>
+        implements IReservationRepository<Reservation, UUID> {
+
+    InMemoryReservationRepository() {
+        super(Reservation::getReservationId);
+    }
+
+    @Override
+    public List<Reservation> findAllByUser(UUID userId) {
+        return streamAllByUser(userId).toList();
+    }
+
+    @Override
+    public Stream<Reservation> streamAllByUser(UUID userId) {
+        return rows.values().stream().filter(reservation -> userId.equals(reservation.getUserId()));
+    }
+
+    @Override
+    public boolean reserve(Reservation reservation) {
+        TicketCategory category = reservation.getCategory();
+        synchronized (category) {
+            if (!category.reserveTickets(reservation.getQuantity())) {
+                return false;
+            }
+        }
+        rows.put(reservation.getReservationId(), reservation);
+        return true;
+    }
+
+    // Tickets already taken for earlier lines are given back when a later one cannot be covered
+    @Override
+    public boolean reserveAll(List<Reservation> reservations) {
+        int taken = 0;
+        while (taken < reservations.size()) {
+            Reservation reservation = reservations.get(taken);
+            TicketCategory category = reservation.getCategory();
+            synchronized (category) {
+                if (!category.reserveTickets(reservation.getQuantity())) {
+                    break;
+                }
+            }
+            taken++;
+        }
+        if (taken < reservations.size()) {
+            for (Reservation reservation : reservations.subList(0, taken)) {
+                TicketCategory category = reservation.getCategory();
+                synchronized (category) {
+                    category.updateAvailability(category.getAvailableTickets() + reservation.getQuantity());
+                }
+            }
+            return false;
+        }
+        for (Reservation reservation : reservations) {
+            rows.put(reservation.getReservationId(), reservation);
+        }
+        return true;
+    }
+
+    // Journaled entries carry the live reservation, which a cancel has already updated in place
+    @Override
+    public void applyJournal(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            if (entry.getType() == JournalEntry.Type.RESERVE && entry.getReservation() != null) {
+                rows.putIfAbsent(entry.getReservationId(), entry.getReservation());
+            }
+        }
+    }
+
+    @Override
+    public void forEachConfirmedSale(SaleVisitor visitor) {
+        for (Reservation reservation : rows.values()) {
+            if ("CONFIRMED".equals(reservation.getStatus())) {
+                visitor.visit(reservation.getEvent().getEventId(), reservation.getQuantity(),
+                        reservation.getCategory().getPriceCents());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.repository.ITicketCategoryRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+class InMemoryTicketCategoryRepository extends InMemoryRepository<TicketCategory>
+        implements ITicketCategoryRepository<TicketCategory, UUID> {
+
+    InMemoryTicketCategoryRepository() {
+        super(TicketCategory::getCategoryId);
+    }
+
+    @Override
+    public List<TicketCategory> findAllByEvent(UUID eventId) {
+        return rows.values().stream()
+                .filter(category -> category.getEvent() != null && eventId.equals(category.getEvent().getEventId()))
+                .toList();
+    }
+
+    @Override
+    public boolean tryReserve(UUID categoryId, int quantity) {
+        TicketCategory category = rows.get(categoryId);
+        if (category == null) {
+            return false;
+        }
+        synchronized (category) {
+            return category.reserveTickets(quantity);
+        }
+    }
+}
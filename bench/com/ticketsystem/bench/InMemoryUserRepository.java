@@ -0,0 +1,37 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.IUserRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+class InMemoryUserRepository extends InMemoryRepository<User> implements IUserRepository<User, UUID> {
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+
+    InMemoryUserRepository() {
+        super(User::getUserId);
+    }
+
+    @Override
+    public void save(User obj) {
+        super.save(obj);
+        byUsername.put(obj.getUsername(), obj);
+    }
+
+    @Override
+    public void update(UUID id, User newObj) {
+        User old = rows.replace(id, newObj);
+        if (old != null) {
+            byUsername.remove(old.getUsername(), old);
+            byUsername.put(newObj.getUsername(), newObj);
+        }
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return Optional.ofNullable(byUsername.get(username));
+    }
+}
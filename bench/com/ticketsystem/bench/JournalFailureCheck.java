@@ -0,0 +1,209 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.JournalEntry;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.OrderLine;
+import com.ticketsystem.service.ReservationService;
+import com.ticketsystem.util.MetricsRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Makes the reservation journal fail under the service and checks that no seats are lost: a
+ * reserve, an order or a hold confirmation whose change cannot be journaled must give its
+ * seats back. Then has the repository reject a reserve and a cancel for good, and checks that
+ * once they are dead-lettered the seats, lookups and history match what the repository holds.
+ * Exits with status 1 when they do not.
+ *
+ * <p>Usage: {@code JournalFailureCheck}
+ */
+public class JournalFailureCheck {
+    private static final int CAPACITY = 100;
+    private static final long DEAD_LETTER_TIMEOUT_MILLIS = 30_000;
+
+    private static boolean ok = true;
+
+    public static void main(String[] args) throws Exception {
+        failedAppends();
+        deadLetters();
+        if (!ok) {
+            System.out.println("FAILED: memory and repository disagree");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static void failedAppends() throws Exception {
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        InMemoryReservationRepository reservationRepository = new InMemoryReservationRepository();
+        Event event = new Event("Journal failure", LocalDateTime.of(2026, 6, 1, 20, 0), "Arena", EventType.CONCERT,
+                new User("organizer", "secret", "FIRM"));
+        eventRepository.save(event);
+        TicketCategory category = new TicketCategory("Floor", event, 5_000, CAPACITY);
+        ticketCategoryRepository.save(category);
+
+        Path journalFile = Files.createTempFile("journal-failure", ".journal");
+        ReservationJournal journal = new ReservationJournal(journalFile, reservationRepository);
+        ReservationService reservationService = new ReservationService(new EventService(eventRepository),
+                reservationRepository, ticketCategoryRepository, journal);
+        Reservation hold = reservationService.holdSeats(event.getEventId(), category.getCategoryId(), 3, null,
+                Duration.ofMinutes(5));
+        // A closed journal refuses every append, as a full one does once its timeout passes
+        journal.close();
+
+        System.out.printf("%-28s %10s %10s %10s%n", "failed append", "available", "held", "");
+        // The hold keeps its seats until it is confirmed
+        int heldSeats = hold.getQuantity();
+        refused("reserve", CAPACITY - heldSeats, heldSeats, reservationService, category,
+                () -> reservationService.createReservation(event.getEventId(), category.getCategoryId(), 2, null));
+        refused("order", CAPACITY - heldSeats, heldSeats, reservationService, category,
+                () -> reservationService.createOrder(event.getEventId(),
+                        List.of(new OrderLine(category.getCategoryId(), 4)), null));
+        refused("confirm hold", CAPACITY, 0, reservationService, category,
+                () -> reservationService.confirmHold(hold.getReservationId()));
+
+        reservationService.shutdown();
+        Files.deleteIfExists(journalFile);
+    }
+
+    private static void deadLetters() throws Exception {
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        RejectingReservationRepository reservationRepository = new RejectingReservationRepository();
+        Event event = new Event("Dead letters", LocalDateTime.of(2026, 6, 1, 20, 0), "Arena", EventType.CONCERT,
+                new User("organizer", "secret", "FIRM"));
+        eventRepository.save(event);
+        TicketCategory category = new TicketCategory("Floor", event, 5_000, CAPACITY);
+        ticketCategoryRepository.save(category);
+        UUID categoryId = category.getCategoryId();
+        UUID userId = UUID.randomUUID();
+
+        Path journalFile = Files.createTempFile("journal-failure", ".journal");
+        Path deadLetterFile = journalFile.resolveSibling(journalFile.getFileName() + ".dead");
+        ReservationJournal journal = new ReservationJournal(journalFile, reservationRepository);
+        ReservationService reservationService = new ReservationService(new EventService(eventRepository),
+                reservationRepository, ticketCategoryRepository, journal);
+
+        System.out.printf("%-28s %10s %10s %10s%n", "dead-lettered", "available", "status", "");
+        reservationRepository.rejecting = entry -> entry.getType() == JournalEntry.Type.RESERVE;
+        Reservation lost = reservationService.createReservation(event.getEventId(), categoryId, 2, userId);
+        awaitDeadLetters(journal, 1);
+        deadLettered("reserve", CAPACITY, null, reservationService, categoryId, lost.getReservationId(), userId);
+
+        reservationRepository.rejecting = entry -> false;
+        Reservation kept = reservationService.createReservation(event.getEventId(), categoryId, 3, userId);
+        await(() -> journal.getPendingCount() == 0);
+        reservationRepository.rejecting = entry -> entry.getType() == JournalEntry.Type.CANCEL;
+        reservationService.cancelReservation(kept.getReservationId());
+        awaitDeadLetters(journal, 2);
+        deadLettered("cancel", CAPACITY - 3, "CONFIRMED", reservationService, categoryId, kept.getReservationId(),
+                userId);
+
+        boolean counted = MetricsRegistry.global().render().contains("ticketsystem_journal_dead_letters_total 2\n");
+        ok &= counted;
+        System.out.printf("%-28s %s%n", "dead letters in metrics", counted ? "ok" : "MISSING");
+
+        reservationService.shutdown();
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(deadLetterFile);
+    }
+
+    private static void refused(String operation, int expectedAvailable, int expectedHeld,
+                                ReservationService reservationService, TicketCategory category, Supplier<?> call) {
+        boolean threw = false;
+        try {
+            call.get();
+        } catch (IllegalStateException e) {
+            threw = true;
+        }
+        int available = reservationService.getAvailableTickets(category.getCategoryId());
+        int held = reservationService.getHeldTickets(category.getCategoryId());
+        boolean balanced = threw && available == expectedAvailable && held == expectedHeld;
+        ok &= balanced;
+        System.out.printf("%-28s %10d %10d %10s%n", operation, available, held, balanced ? "ok" : "LOST");
+    }
+
+    // The service must report what the repository holds: no reservation at all, or the given status
+    private static void deadLettered(String operation, int expectedAvailable, String expectedStatus,
+                                     ReservationService reservationService, UUID categoryId, UUID reservationId,
+                                     UUID userId) {
+        int available = reservationService.getAvailableTickets(categoryId);
+        Reservation found = reservationService.getReservationById(reservationId);
+        String status = found == null ? null : found.getStatus();
+        String inHistory = reservationService.getReservationsByUserId(userId).stream()
+                .filter(reservation -> reservation.getReservationId().equals(reservationId))
+                .map(Reservation::getStatus)
+                .findFirst().orElse(null);
+        boolean matches = available == expectedAvailable && String.valueOf(expectedStatus).equals(String.valueOf(status))
+                && String.valueOf(expectedStatus).equals(String.valueOf(inHistory));
+        ok &= matches;
+        System.out.printf("%-28s %10d %10s %10s%n", operation, available, status, matches ? "ok" : "DRIFTED");
+    }
+
+    private static void awaitDeadLetters(ReservationJournal journal, long count) throws InterruptedException {
+        await(() -> journal.getDeadLetterCount() >= count);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DEAD_LETTER_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("The journal writer did not get there in time");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static Reservation copy(Reservation reservation, String status) {
+        return new Reservation(reservation.getReservationId(), reservation.getEvent(), reservation.getCategory(),
+                reservation.getQuantity(), reservation.getReservationDate(), status, reservation.getUserId());
+    }
+
+    // Stores copies, so a cancel it rejects leaves the stored row confirmed, as in a database
+    private static final class RejectingReservationRepository extends InMemoryReservationRepository {
+        private volatile Predicate<JournalEntry> rejecting = entry -> false;
+
+        @Override
+        public Optional<Reservation> findById(UUID id) {
+            return Optional.ofNullable(rows.get(id)).map(row -> copy(row, row.getStatus()));
+        }
+
+        @Override
+        public List<Reservation> findAllByUser(UUID userId) {
+            return streamAllByUser(userId).map(row -> copy(row, row.getStatus())).toList();
+        }
+
+        @Override
+        public void applyJournal(List<JournalEntry> entries) {
+            for (JournalEntry entry : entries) {
+                if (rejecting.test(entry)) {
+                    // Not an SQLException, so the journal does not retry it forever
+                    throw new IllegalStateException("Rejected " + entry.getType() + " " + entry.getReservationId());
+                }
+            }
+            for (JournalEntry entry : entries) {
+                if (entry.getType() == JournalEntry.Type.RESERVE) {
+                    rows.putIfAbsent(entry.getReservationId(), copy(entry.getReservation(), "CONFIRMED"));
+                } else {
+                    rows.computeIfPresent(entry.getReservationId(), (id, row) -> copy(row, "CANCELLED"));
+                }
+            }
+        }
+    }
+}
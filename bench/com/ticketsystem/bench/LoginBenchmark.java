@@ -0,0 +1,74 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.User;
+import com.ticketsystem.service.UserService;
+import com.ticketsystem.util.PasswordHasher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Login throughput before and after password hashing: the old plaintext comparison, a full
+ * PBKDF2 check on every login, and {@code UserService.login} with its credential cache. Runs its
+ * own loop instead of {@link Harness}, whose 256-call batches are too coarse for PBKDF2.
+ *
+ * <p>Usage: {@code LoginBenchmark [threads] [seconds]}
+ */
+public class LoginBenchmark {
+    private static final int USER_COUNT = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        InMemoryUserRepository plaintextUsers = new InMemoryUserRepository();
+        InMemoryUserRepository hashedUsers = new InMemoryUserRepository();
+        String passwordHash = PasswordHasher.hash("password");
+        for (int i = 0; i < USER_COUNT; i++) {
+            plaintextUsers.save(new User(UUID.randomUUID(), "user" + i, "password", "USER"));
+            hashedUsers.save(new User(UUID.randomUUID(), "user" + i, passwordHash, "USER"));
+        }
+        UserService userService = new UserService(hashedUsers);
+
+        System.out.printf("%-32s %3s %12s %12s%n", "login", "thr", "ops/s", "us/op");
+        // What UserService.login did before: look up the user and compare the stored plaintext
+        run("plaintext (before)", threads, seconds, i -> plaintextUsers.findByUsername("user" + i)
+                .filter(user -> user.getPassword().equals("password")).isPresent());
+        run("pbkdf2, no cache", threads, seconds, i -> hashedUsers.findByUsername("user" + i)
+                .filter(user -> user.verifyPassword("password")).isPresent());
+        for (int i = 0; i < USER_COUNT; i++) {
+            userService.login("user" + i, "password");
+        }
+        run("pbkdf2 + cache (UserService)", threads, seconds, i -> userService.login("user" + i, "password").isPresent());
+        userService.shutdown();
+    }
+
+    private static void run(String name, int threadCount, int seconds, IntPredicate login) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    if (!login.test(random.nextInt(USER_COUNT))) {
+                        throw new IllegalStateException("Login failed");
+                    }
+                    ops.increment();
+                }
+            }, name + "-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        double opsPerSecond = ops.sum() / (double) seconds;
+        System.out.printf("%-32s %3d %12.0f %12.1f%n", name, threadCount, opsPerSecond, threadCount * 1e6 / opsPerSecond);
+    }
+}
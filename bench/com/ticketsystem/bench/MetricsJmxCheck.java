@@ -0,0 +1,44 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.util.MethodStats;
+import com.ticketsystem.util.MetricsRegistry;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reads the metrics MXBeans back through the platform MBeanServer, the way jconsole and
+ * VisualVM do, and exits with status 1 when an attribute cannot be read or is wrong.
+ *
+ * <p>Usage: {@code MetricsJmxCheck}
+ */
+public class MetricsJmxCheck {
+    private static final String METHOD = "bench.jmxCheck";
+    private static final int CALLS = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        MethodStats stats = MetricsRegistry.global().stats(METHOD);
+        for (int i = 0; i < CALLS; i++) {
+            long startNanos = System.nanoTime();
+            if (i % 10 == 0) {
+                stats.recordError();
+            }
+            stats.record(startNanos - i * 1_000L);
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.ticketsystem:type=Metrics,name=" + ObjectName.quote(METHOD));
+        long calls = (Long) server.getAttribute(name, "Calls");
+        long errors = (Long) server.getAttribute(name, "Errors");
+        double p99 = (Double) server.getAttribute(name, "P99Micros");
+        double max = (Double) server.getAttribute(name, "MaxMicros");
+        System.out.printf("Calls=%d Errors=%d P99Micros=%.1f MaxMicros=%.1f%n", calls, errors, p99, max);
+
+        if (calls != CALLS || errors != CALLS / 10 || p99 <= 0 || max < p99) {
+            System.out.println("FAILED: attributes do not match the recorded calls");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.IEventRepository;
+import com.ticketsystem.util.InstrumentedProxy;
+import com.ticketsystem.util.LatencyHistogram;
+import com.ticketsystem.util.MethodStats;
+import com.ticketsystem.util.MetricsRegistry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Cost of the method metrics: a bare histogram update, an event lookup timed inline the way the
+ * services do it, and the same lookup through the repository proxy, each next to the untimed call.
+ *
+ * <p>Usage: {@code MetricsOverheadBenchmark [threads] [warmupMillis] [measureMillis]}
+ */
+public class MetricsOverheadBenchmark {
+    private static final int EVENT_COUNT = 10_000;
+
+    private final List<UUID> eventIds = new ArrayList<>();
+    private final IEventRepository<Event, UUID> direct;
+    private final IEventRepository<Event, UUID> proxied;
+    private final MethodStats inlineStats = new MetricsRegistry().stats("bench.findById");
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    MetricsOverheadBenchmark() {
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        User organizer = new User("organizer", "secret", "FIRM");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event event = new Event("Event " + i, start.plusHours(i), "Venue " + (i % 100), EventType.CONCERT, organizer);
+            eventRepository.save(event);
+            eventIds.add(event.getEventId());
+        }
+        this.direct = eventRepository;
+        this.proxied = InstrumentedProxy.wrap(IEventRepository.class, eventRepository, "bench.EventRepository");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long warmupMillis = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+        long measureMillis = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+
+        MetricsOverheadBenchmark benchmarks = new MetricsOverheadBenchmark();
+        Harness harness = new Harness(warmupMillis, measureMillis);
+
+        System.out.printf("%-40s %3s %15s %12s %12s%n", "benchmark", "thr", "ops/s", "ns/op", "B/op");
+        for (int threadCount : new int[]{1, threads}) {
+            System.out.println(harness.run("histogram.record", threadCount, benchmarks::histogramRecord));
+            System.out.println(harness.run("findById.untimed", threadCount, benchmarks::findByIdUntimed));
+            System.out.println(harness.run("findById.inline", threadCount, benchmarks::findByIdInline));
+            System.out.println(harness.run("findById.proxy", threadCount, benchmarks::findByIdProxy));
+        }
+    }
+
+    private Supplier<Object> histogramRecord() {
+        return () -> {
+            histogram.record(ThreadLocalRandom.current().nextLong(1_000, 5_000_000));
+            return null;
+        };
+    }
+
+    private Supplier<Object> findByIdUntimed() {
+        return () -> direct.findById(randomId());
+    }
+
+    private Supplier<Object> findByIdInline() {
+        return () -> {
+            long startNanos = System.nanoTime();
+            try {
+                return direct.findById(randomId());
+            } finally {
+                inlineStats.record(startNanos);
+            }
+        };
+    }
+
+    private Supplier<Object> findByIdProxy() {
+        return () -> proxied.findById(randomId());
+    }
+
+    private UUID randomId() {
+        return eventIds.get(ThreadLocalRandom.current().nextInt(eventIds.size()));
+    }
+}
@@ -0,0 +1,192 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.JournalEntry;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.OrderLine;
+import com.ticketsystem.service.ReservationService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Oversell check for the in-memory seat inventory. The given number of threads reserve, order
+ * and cancel on a few small categories until every one is sold out, with cancels picked from a
+ * shared list so the same reservation is often cancelled twice or concurrently. For every
+ * category, the confirmed reservations plus the remaining tickets must equal its capacity, both
+ * as the service reports them and after the journal is flushed. Exits with status 1 when they
+ * do not. The reservation repository hands out copies, as a database would.
+ *
+ * <p>Usage: {@code OversellStressTest [threads] [capacityPerCategory]}
+ */
+public class OversellStressTest {
+    private static final int CATEGORY_COUNT = 4;
+
+    public static void main(String[] args) throws Exception {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        CopyingReservationRepository reservationRepository = new CopyingReservationRepository();
+        Event event = new Event("On-sale", LocalDateTime.of(2026, 6, 1, 20, 0), "Arena", EventType.CONCERT,
+                new User("organizer", "secret", "FIRM"));
+        eventRepository.save(event);
+        List<TicketCategory> categories = new ArrayList<>();
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            TicketCategory category = new TicketCategory("Tier " + c, event, 5_000 + c * 2_500, capacity);
+            ticketCategoryRepository.save(category);
+            categories.add(category);
+        }
+
+        Path journalFile = Files.createTempFile("oversell", ".journal");
+        ReservationService reservationService = new ReservationService(new EventService(eventRepository),
+                reservationRepository, ticketCategoryRepository,
+                new ReservationJournal(journalFile, reservationRepository));
+
+        List<Reservation> made = new CopyOnWriteArrayList<>();
+        LongAdder refused = new LongAdder();
+        LongAdder cancels = new LongAdder();
+        CyclicBarrier start = new CyclicBarrier(threadCount);
+        List<Thread> workers = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Reservation> own = new ArrayList<>();
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                while (!soldOut(reservationService, categories)) {
+                    int op = random.nextInt(10);
+                    try {
+                        if (op < 7) {
+                            TicketCategory category = categories.get(random.nextInt(CATEGORY_COUNT));
+                            own.add(reservationService.createReservation(event.getEventId(),
+                                    category.getCategoryId(), 1 + random.nextInt(4), null));
+                        } else if (op < 8) {
+                            List<OrderLine> lines = List.of(
+                                    new OrderLine(categories.get(random.nextInt(CATEGORY_COUNT)).getCategoryId(), 1),
+                                    new OrderLine(categories.get(random.nextInt(CATEGORY_COUNT)).getCategoryId(), 2));
+                            own.addAll(reservationService.createOrder(event.getEventId(), lines, null).reservations());
+                        } else if (!made.isEmpty()) {
+                            // Anyone's reservation, so cancels of the same one race
+                            reservationService.cancelReservation(made.get(random.nextInt(made.size())).getReservationId());
+                            cancels.increment();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        refused.increment();
+                    }
+                    if (own.size() >= 64) {
+                        made.addAll(own);
+                        own.clear();
+                    }
+                }
+                made.addAll(own);
+            }, "oversell-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        System.out.printf("%d threads, %d reservations, %d cancels, %d refused in %.1f s%n",
+                threadCount, made.size(), cancels.sum(), refused.sum(), seconds);
+        System.out.printf("%-8s %10s %10s %10s %10s%n", "category", "capacity", "sold", "available", "");
+        // As the service sees them: pending ones from memory, flushed ones from the repository
+        List<Reservation> current = made.stream()
+                .map(reservation -> reservationService.getReservationById(reservation.getReservationId()))
+                .toList();
+        boolean ok = true;
+        for (TicketCategory category : categories) {
+            long sold = confirmed(current, category);
+            int available = reservationService.getAvailableTickets(category.getCategoryId());
+            boolean balanced = available >= 0 && sold + available == capacity;
+            ok &= balanced;
+            System.out.printf("%-8s %10d %10d %10d %10s%n", category.getName(), capacity, sold, available,
+                    balanced ? "ok" : "MISMATCH");
+        }
+
+        reservationService.shutdown();
+        List<Reservation> persisted = reservationRepository.findAll();
+        for (TicketCategory category : categories) {
+            long sold = confirmed(persisted, category);
+            int available = reservationService.getAvailableTickets(category.getCategoryId());
+            boolean balanced = sold + available == capacity;
+            ok &= balanced;
+            System.out.printf("%-8s after flush: sold %d, available %d %s%n", category.getName(), sold, available,
+                    balanced ? "ok" : "MISMATCH");
+        }
+        Files.deleteIfExists(journalFile);
+
+        if (!ok) {
+            System.out.println("FAILED: tickets sold plus tickets available differ from capacity");
+            System.exit(1);
+        }
+        System.out.println("OK: no oversell");
+    }
+
+    private static boolean soldOut(ReservationService reservationService, List<TicketCategory> categories) {
+        for (TicketCategory category : categories) {
+            if (reservationService.getAvailableTickets(category.getCategoryId()) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Reservation copy(Reservation reservation, String status) {
+        return new Reservation(reservation.getReservationId(), reservation.getEvent(), reservation.getCategory(),
+                reservation.getQuantity(), reservation.getReservationDate(), status, reservation.getUserId());
+    }
+
+    private static long confirmed(List<Reservation> reservations, TicketCategory category) {
+        return reservations.stream()
+                .filter(reservation -> reservation.getCategory().getCategoryId().equals(category.getCategoryId()))
+                .filter(reservation -> "CONFIRMED".equals(reservation.getStatus()))
+                .mapToLong(Reservation::getQuantity)
+                .sum();
+    }
+
+    // A shared object would let a stale read see a cancel made through another reference
+    private static final class CopyingReservationRepository extends InMemoryReservationRepository {
+        @Override
+        public Optional<Reservation> findById(UUID id) {
+            return Optional.ofNullable(rows.get(id)).map(row -> copy(row, row.getStatus()));
+        }
+
+        @Override
+        public List<Reservation> findAll() {
+            return rows.values().stream().map(row -> copy(row, row.getStatus())).toList();
+        }
+
+        @Override
+        public void applyJournal(List<JournalEntry> entries) {
+            for (JournalEntry entry : entries) {
+                if (entry.getType() == JournalEntry.Type.RESERVE) {
+                    rows.putIfAbsent(entry.getReservationId(), copy(entry.getReservation(), "CONFIRMED"));
+                } else {
+                    rows.computeIfPresent(entry.getReservationId(), (id, row) -> copy(row, "CANCELLED"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.CachingEventRepository;
+import com.ticketsystem.repository.EventRepository;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.repository.ReservationRepository;
+import com.ticketsystem.repository.TicketCategoryRepository;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.ReservationExecutor;
+import com.ticketsystem.service.ReservationService;
+import com.ticketsystem.util.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements the JDBC repositories and the reservation service issue, against
+ * {@link ScriptedJdbcDriver} instead of PostgreSQL. Listing events or a user's reservations must
+ * take one query however many rows and organizers there are, with each organizer built once,
+ * and a reservation must take at most two statements in database mode, also when it goes through
+ * the {@link ReservationExecutor}, and none on the caller's thread in journal mode. Exits with status 1 when a count is over its limit.
+ *
+ * <p>Usage: {@code QueryCountCheck [events] [reservations]}
+ */
+public class QueryCountCheck {
+    private static final int ORGANIZERS = 3;
+    private static final int CATEGORIES_PER_EVENT = 2;
+    private static final int WARMUP_RESERVATIONS = 10;
+
+    private static ScriptedJdbcDriver driver;
+    private static boolean ok = true;
+
+    public static void main(String[] args) throws Exception {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int reservationCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        driver = ScriptedJdbcDriver.register();
+        UUID organizerId = seed(eventCount, reservationCount);
+        UUID userId = (UUID) driver.rows("reservations").get(0).get("user_id");
+        UUID eventId = (UUID) driver.rows("events").get(0).get("event_id");
+        UUID categoryId = (UUID) driver.rows("ticket_categories").get(0).get("category_id");
+        UUID reservationId = (UUID) driver.rows("reservations").get(0).get("reservation_id");
+
+        try (ConnectionPool connectionPool = new ConnectionPool()) {
+            EventRepository eventRepository = new EventRepository(connectionPool);
+            TicketCategoryRepository ticketCategoryRepository = new TicketCategoryRepository(connectionPool);
+            ReservationRepository reservationRepository = new ReservationRepository(connectionPool);
+
+            System.out.printf("%-40s %6s %10s %6s%n", "operation", "rows", "statements", "limit");
+            List<Event> events = count("EventRepository.findAll", 1, eventRepository::findAll);
+            checkOrganizers("EventRepository.findAll", events);
+            count("EventRepository.findEventsByOrganizer", 1, () -> eventRepository.findEventsByOrganizer(organizerId));
+            count("EventRepository.findEventsByTimeInterval", 1, () -> eventRepository.findEventsByTimeInterval(
+                    LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2027, 1, 1, 0, 0)));
+            count("ReservationRepository.findById", 1, () -> reservationRepository.findById(reservationId).stream().toList());
+            List<Reservation> history = count("ReservationRepository.findAllByUser", 1,
+                    () -> reservationRepository.findAllByUser(userId));
+            checkOrganizers("ReservationRepository.findAllByUser", history.stream().map(Reservation::getEvent).toList());
+
+            // Database mode: the conditional update and the insert, once the event and category are loaded
+            ReservationService databaseMode = new ReservationService(
+                    new EventService(new CachingEventRepository(eventRepository)), reservationRepository,
+                    ticketCategoryRepository);
+            perReservation("reserve, database mode", 2, databaseMode, eventId, categoryId, reservationCount);
+            // Through the executor, as the HTTP API reserves: the admission check must not add a query
+            try (ReservationExecutor executor = new ReservationExecutor(databaseMode)) {
+                perQueuedReservation("reserve via executor, database mode", 2, executor, eventId, categoryId,
+                        reservationCount);
+            }
+            databaseMode.shutdown();
+
+            // Journal mode: nothing on the caller's thread; the writer inserts in batches
+            Path journalFile = Files.createTempFile("query-count", ".journal");
+            ReservationService journalMode = new ReservationService(
+                    new EventService(new CachingEventRepository(eventRepository)), reservationRepository,
+                    ticketCategoryRepository, new ReservationJournal(journalFile, reservationRepository));
+            perReservation("reserve, journal mode (caller)", 0, journalMode, eventId, categoryId, reservationCount);
+            long before = driver.getStatementCount();
+            journalMode.shutdown();
+            System.out.printf("%-40s %6d %10d %6s%n", "journal flush on shutdown", reservationCount,
+                    driver.getStatementCount() - before, "");
+            Files.deleteIfExists(journalFile);
+        }
+
+        if (!ok) {
+            System.out.println("FAILED: more statements than expected");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static <T> List<T> count(String operation, long limit, Supplier<List<T>> call) {
+        long before = driver.getStatementCountOnThisThread();
+        List<T> rows = call.get();
+        report(operation, rows.size(), driver.getStatementCountOnThisThread() - before, limit);
+        return rows;
+    }
+
+    private static void perReservation(String operation, long limit, ReservationService service, UUID eventId,
+                                       UUID categoryId, int reservations) {
+        for (int i = 0; i < WARMUP_RESERVATIONS; i++) {
+            service.createReservation(eventId, categoryId, 1, null);
+        }
+        long before = driver.getStatementCountOnThisThread();
+        for (int i = 0; i < reservations; i++) {
+            service.createReservation(eventId, categoryId, 1, null);
+        }
+        long statements = driver.getStatementCountOnThisThread() - before;
+        // Rounded up, so one extra statement anywhere in the run is over the limit
+        report(operation, reservations, (statements + reservations - 1) / reservations, limit);
+    }
+
+    // Counted on every thread, since the executor runs the reservation on its own; nothing else runs meanwhile
+    private static void perQueuedReservation(String operation, long limit, ReservationExecutor executor, UUID eventId,
+                                             UUID categoryId, int reservations) {
+        for (int i = 0; i < WARMUP_RESERVATIONS; i++) {
+            executor.createReservation(eventId, categoryId, 1, null).join();
+        }
+        long before = driver.getStatementCount();
+        for (int i = 0; i < reservations; i++) {
+            executor.createReservation(eventId, categoryId, 1, null).join();
+        }
+        long statements = driver.getStatementCount() - before;
+        report(operation, reservations, (statements + reservations - 1) / reservations, limit);
+    }
+
+    private static void checkOrganizers(String operation, Collection<Event> events) {
+        Set<User> organizers = Collections.newSetFromMap(new IdentityHashMap<>());
+        events.forEach(event -> organizers.add(event.getOrganizer()));
+        boolean shared = organizers.size() <= ORGANIZERS;
+        ok &= shared;
+        System.out.printf("%-40s %d organizer instances for %d organizers %s%n", "  " + operation,
+                organizers.size(), ORGANIZERS, shared ? "ok" : "DUPLICATED");
+    }
+
+    private static void report(String operation, int rows, long statements, long limit) {
+        boolean within = statements <= limit;
+        ok &= within;
+        System.out.printf("%-40s %6d %10d %6d %s%n", operation, rows, statements, limit, within ? "ok" : "OVER");
+    }
+
+    // Events spread over a few organizers; every reservation belongs to one user
+    private static UUID seed(int eventCount, int reservationCount) {
+        UUID[] organizerIds = new UUID[ORGANIZERS];
+        for (int o = 0; o < ORGANIZERS; o++) {
+            organizerIds[o] = UUID.randomUUID();
+        }
+        UUID userId = UUID.randomUUID();
+        for (int e = 0; e < eventCount; e++) {
+            int organizer = e % ORGANIZERS;
+            Map<String, Object> event = Map.of(
+                    "event_id", UUID.randomUUID(),
+                    "event_name", "Event " + e,
+                    "event_date", Timestamp.valueOf(LocalDateTime.of(2026, 6, 1, 20, 0).plusHours(e)),
+                    "location", "Hall " + (e % 20),
+                    "event_type", "CONCERT",
+                    "organizer_id", organizerIds[organizer],
+                    "organizer_username", "organizer" + organizer,
+                    "organizer_password", "hash",
+                    "organizer_role", "FIRM");
+            driver.addRow("events", event);
+            for (int c = 0; c < CATEGORIES_PER_EVENT; c++) {
+                Map<String, Object> category = Map.of(
+                        "category_id", UUID.randomUUID(),
+                        "event_id", event.get("event_id"),
+                        "name", "Tier " + c,
+                        "price", BigDecimal.valueOf(50 + 25 * c),
+                        "available_tickets", 1_000_000);
+                driver.addRow("ticket_categories", category);
+                if (e * CATEGORIES_PER_EVENT + c < reservationCount) {
+                    driver.addRow("reservations", reservationRow(event, category, userId));
+                }
+            }
+        }
+        return organizerIds[0];
+    }
+
+    private static Map<String, Object> reservationRow(Map<String, Object> event, Map<String, Object> category,
+                                                      UUID userId) {
+        Map<String, Object> row = new HashMap<>(event);
+        row.put("reservation_id", UUID.randomUUID());
+        row.put("quantity", 2);
+        row.put("reservation_date", Timestamp.valueOf(LocalDateTime.of(2026, 5, 1, 12, 0)));
+        row.put("status", "CONFIRMED");
+        row.put("user_id", userId);
+        row.put("category_id", category.get("category_id"));
+        row.put("category_name", category.get("name"));
+        row.put("price", category.get("price"));
+        row.put("available_tickets", category.get("available_tickets"));
+        return row;
+    }
+}
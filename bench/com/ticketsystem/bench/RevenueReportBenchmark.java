@@ -0,0 +1,97 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.service.RevenueReport;
+import com.ticketsystem.util.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Full-catalog sales report over in-memory reservations: the boxed {@code double} aggregation a
+ * report would have used before prices were cents, against {@link RevenueReport}.
+ *
+ * <p>Usage: {@code RevenueReportBenchmark [reservations] [rounds]}
+ */
+public class RevenueReportBenchmark {
+    private static final int EVENT_COUNT = 10_000;
+    private static final int CATEGORIES_PER_EVENT = 4;
+
+    public static void main(String[] args) {
+        int reservationCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        User organizer = new User(UUID.randomUUID(), "organizer", "secret", "FIRM");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+        List<TicketCategory> categories = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event event = new Event("Event " + i, start.plusHours(i), "Venue " + (i % 100), EventType.CONCERT, organizer);
+            for (int c = 0; c < CATEGORIES_PER_EVENT; c++) {
+                // Prices like 49.99 that have no exact double
+                categories.add(new TicketCategory("Tier " + c, event, 4_999 + c * 2_533, Integer.MAX_VALUE));
+            }
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        List<Reservation> reservations = new ArrayList<>(reservationCount);
+        for (int i = 0; i < reservationCount; i++) {
+            TicketCategory category = categories.get(random.nextInt(categories.size()));
+            reservations.add(new Reservation(category.getEvent(), category, 1 + random.nextInt(6), null));
+        }
+
+        RevenueReport.Builder collected = RevenueReport.builder();
+        for (Reservation reservation : reservations) {
+            collected.add(reservation.getEvent().getEventId(), reservation.getQuantity(), reservation.getCategory().getPriceCents());
+        }
+
+        System.out.printf("%,d reservations over %,d events%n", reservationCount, EVENT_COUNT);
+        System.out.printf("%-28s %10s %10s %32s%n", "report", "best ms", "mean ms", "total");
+        for (int pass = 0; pass < 2; pass++) {
+            // The first pass is warmup
+            boolean print = pass == 1;
+            time("double, boxed (before)", rounds, print, () -> {
+                Map<UUID, Double> revenue = reservations.stream().collect(Collectors.groupingBy(
+                        reservation -> reservation.getEvent().getEventId(),
+                        Collectors.summingDouble(reservation ->
+                                reservation.getCategory().getPriceCents() / 100.0 * reservation.getQuantity())));
+                // The exact value of the double, to show the drift
+                return new BigDecimal(revenue.values().stream().mapToDouble(Double::doubleValue).sum()).toPlainString();
+            });
+            time("RevenueReport", rounds, print, () -> {
+                RevenueReport.Builder builder = RevenueReport.builder();
+                for (Reservation reservation : reservations) {
+                    builder.add(reservation.getEvent().getEventId(), reservation.getQuantity(),
+                            reservation.getCategory().getPriceCents());
+                }
+                return Money.format(builder.build().getTotalRevenueCents());
+            });
+            time("RevenueReport.build only", rounds, print, () -> Money.format(collected.build().getTotalRevenueCents()));
+        }
+    }
+
+    private static void time(String name, int rounds, boolean print, Supplier<String> report) {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        String result = null;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            result = report.get();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        if (print) {
+            System.out.printf("%-28s %10.1f %10.1f %32s%n", name, best / 1e6, total / 1e6 / rounds, result);
+        }
+    }
+}
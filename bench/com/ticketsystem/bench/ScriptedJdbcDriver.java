@@ -0,0 +1,261 @@
+package com.ticketsystem.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC driver for {@code jdbc:postgresql:} URLs that answers queries from rows added with
+ * {@link #addRow} instead of a database, and counts the statements executed. A query returns
+ * the rows of the table named after its first {@code FROM}, filtered on the first
+ * {@code column = ?} of its {@code WHERE} clause when there is one; updates and inserts
+ * change nothing and report one row each.
+ */
+final class ScriptedJdbcDriver implements Driver {
+    private static final Pattern TABLE = Pattern.compile("\\bFROM\\s+(\\w+)");
+    private static final Pattern FILTER = Pattern.compile("\\bWHERE\\s+(?:\\w+\\.)?(\\w+)\\s*=\\s*\\?");
+
+    private final Map<String, List<Map<String, Object>>> tables = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final ThreadLocal<long[]> statementsOnThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Registers a new driver with {@link DriverManager}, so the repositories' pool gets its
+     * connections from it.
+     */
+    static ScriptedJdbcDriver register() throws SQLException {
+        ScriptedJdbcDriver driver = new ScriptedJdbcDriver();
+        DriverManager.registerDriver(driver);
+        return driver;
+    }
+
+    void addRow(String table, Map<String, Object> row) {
+        tables.computeIfAbsent(table, name -> new CopyOnWriteArrayList<>()).add(row);
+    }
+
+    List<Map<String, Object>> rows(String table) {
+        return tables.getOrDefault(table, List.of());
+    }
+
+    long getStatementCount() {
+        return statements.sum();
+    }
+
+    // Separates the statements of a caller from those of background writers
+    long getStatementCountOnThisThread() {
+        return statementsOnThread.get()[0];
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+        return acceptsURL(url) ? proxy(Connection.class, new ConnectionHandler()) : null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url.startsWith("jdbc:postgresql:");
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private void executed() {
+        statements.increment();
+        statementsOnThread.get()[0]++;
+    }
+
+    private List<Map<String, Object>> query(String sql, Map<Integer, Object> parameters) {
+        Matcher table = TABLE.matcher(sql);
+        if (!table.find()) {
+            return List.of();
+        }
+        List<Map<String, Object>> rows = rows(table.group(1));
+        Matcher filter = FILTER.matcher(sql);
+        if (!filter.find()) {
+            return rows;
+        }
+        String column = filter.group(1);
+        Object value = parameters.get(1);
+        return rows.stream().filter(row -> value != null && value.equals(row.get(column))).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static SQLException unsupported(String method) {
+        return new SQLFeatureNotSupportedException("Not scripted: " + method);
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private boolean autoCommit = true;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return ScriptedJdbcDriver.proxy(PreparedStatement.class, new StatementHandler((String) args[0]));
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "commit":
+                case "rollback":
+                    return null;
+                case "isValid":
+                    return !closed;
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ScriptedConnection";
+                default:
+                    throw unsupported(method.getName());
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final String sql;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        private int batchSize;
+        private boolean closed;
+
+        private StatementHandler(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (name) {
+                case "executeQuery":
+                    executed();
+                    return ScriptedJdbcDriver.proxy(ResultSet.class, new ResultSetHandler(query(sql, parameters)));
+                case "executeUpdate":
+                    executed();
+                    return 1;
+                case "executeBatch":
+                    executed();
+                    int[] counts = new int[batchSize];
+                    Arrays.fill(counts, 1);
+                    batchSize = 0;
+                    return counts;
+                case "addBatch":
+                    batchSize++;
+                    return null;
+                case "clearBatch":
+                    batchSize = 0;
+                    return null;
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "setFetchSize":
+                    return null;
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    throw unsupported(name);
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final List<Map<String, Object>> rows;
+        private int position = -1;
+        private Object last;
+
+        private ResultSetHandler(List<Map<String, Object>> rows) {
+            this.rows = new ArrayList<>(rows);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++position < rows.size();
+                case "close":
+                    return null;
+                case "wasNull":
+                    return last == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!name.startsWith("get") || args == null || !(args[0] instanceof String column)) {
+                throw unsupported(name);
+            }
+            last = rows.get(position).get(column);
+            if (name.equals("getInt")) {
+                return last == null ? 0 : ((Number) last).intValue();
+            }
+            return last;
+        }
+    }
+}
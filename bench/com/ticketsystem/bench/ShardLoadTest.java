@@ -0,0 +1,215 @@
+package com.ticketsystem.bench;
+
+import com.ticketsystem.api.ApplicationContext;
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.service.ShardClient;
+import com.ticketsystem.service.ShardRing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-process load test for the sharded inventory. For 1, 2, 4, ... nodes it starts that
+ * many JVMs on this machine, each owning a consistent-hash share of the same in-memory catalog,
+ * and drives reservations at them over the shard protocol.
+ *
+ * <p>Usage: {@code ShardLoadTest [maxNodes] [seconds] [clients] [owner|random]}. With
+ * {@code owner} clients send each request to the owning node; with {@code random} they pick any
+ * node and let it forward.
+ */
+public class ShardLoadTest {
+    private static final int EVENT_COUNT = 1_000;
+    private static final int CATEGORIES_PER_EVENT = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("node")) {
+            runNode(args[1], args[2]);
+            return;
+        }
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        boolean toOwner = args.length <= 3 || args[3].equals("owner");
+
+        Catalog catalog = new Catalog();
+        System.out.printf("%d CPUs, %d clients, %s routing%n", Runtime.getRuntime().availableProcessors(), clients,
+                toOwner ? "owner" : "random");
+        System.out.printf("%5s %12s %10s %10s %9s %8s%n", "nodes", "ops/s", "p50 us", "p99 us", "speedup", "failed");
+        double single = 0;
+        for (int nodes = 1; nodes <= maxNodes; nodes *= 2) {
+            Result result = run(catalog, nodes, seconds, clients, toOwner);
+            if (nodes == 1) {
+                single = result.throughput;
+            }
+            System.out.printf("%5d %12.0f %10.1f %10.1f %8.2fx %8d%n", nodes, result.throughput,
+                    result.p50Nanos / 1_000.0, result.p99Nanos / 1_000.0, result.throughput / single, result.failed);
+        }
+    }
+
+    private record Result(double throughput, long p50Nanos, long p99Nanos, long failed) {
+    }
+
+    private static Result run(Catalog catalog, int nodeCount, int seconds, int clients, boolean toOwner) throws Exception {
+        Map<String, InetSocketAddress> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.put("node" + i, new InetSocketAddress("127.0.0.1", freePort()));
+        }
+        String spec = nodes.entrySet().stream()
+                .map(node -> node.getKey() + "=127.0.0.1:" + node.getValue().getPort())
+                .reduce((a, b) -> a + "," + b)
+                .orElseThrow();
+
+        List<Process> processes = new ArrayList<>();
+        Map<String, ShardClient> shardClients = new HashMap<>();
+        try {
+            for (String nodeId : nodes.keySet()) {
+                processes.add(startNode(nodeId, spec));
+            }
+            for (Process process : processes) {
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                String line;
+                while ((line = output.readLine()) != null && !line.equals("READY")) {
+                    System.out.println(line);
+                }
+            }
+            nodes.forEach((nodeId, address) -> shardClients.put(nodeId, new ShardClient(nodeId, address, catalog.events::get)));
+            ShardRing ring = new ShardRing(nodes.keySet());
+            List<ShardClient> clientList = List.copyOf(shardClients.values());
+
+            LongAdder completed = new LongAdder();
+            LongAdder failed = new LongAdder();
+            ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+            // One second of warmup before the measured window
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    clientThreads.execute(() -> {
+                        long[] samples = new long[1 << 16];
+                        int count = 0;
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        long now;
+                        while ((now = System.nanoTime()) < deadline) {
+                            TicketCategory category = catalog.categories.get(random.nextInt(catalog.categories.size()));
+                            UUID eventId = category.getEvent().getEventId();
+                            ShardClient target = toOwner ? shardClients.get(ring.ownerOf(eventId))
+                                    : clientList.get(random.nextInt(clientList.size()));
+                            boolean ok;
+                            try {
+                                target.reserve(eventId, category.getCategoryId(), 1, null);
+                                ok = true;
+                            } catch (RuntimeException e) {
+                                ok = false;
+                            }
+                            long end = System.nanoTime();
+                            if (now >= measureFrom) {
+                                (ok ? completed : failed).increment();
+                                if (count < samples.length) {
+                                    samples[count++] = end - now;
+                                }
+                            }
+                        }
+                        latencies.add(Arrays.copyOf(samples, count));
+                    });
+                }
+            }
+
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(completed.sum() / (double) seconds, percentile(all, 0.50), percentile(all, 0.99), failed.sum());
+        } finally {
+            shardClients.values().forEach(ShardClient::close);
+            for (Process process : processes) {
+                // Closing stdin tells the node to shut down
+                process.getOutputStream().close();
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private static Process startNode(String nodeId, String spec) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx512m"));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.addAll(List.of("-p", modulePath, "-m", "ticket_reservation_system/" + ShardLoadTest.class.getName()));
+        } else {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), ShardLoadTest.class.getName()));
+        }
+        command.addAll(List.of("node", nodeId, spec));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    private static void runNode(String selfId, String spec) throws IOException {
+        System.setProperty("ticketsystem.shards", spec);
+        System.setProperty("ticketsystem.shard.self", selfId);
+        Catalog catalog = new Catalog();
+        ApplicationContext context = new ApplicationContext(new InMemoryUserRepository(), catalog.eventRepository,
+                catalog.ticketCategoryRepository, new InMemoryReservationRepository());
+        System.out.println("READY");
+        System.out.flush();
+        while (System.in.read() != -1) {
+            // Run until the driver closes stdin
+        }
+        context.close();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    // Same ids in every process, so all nodes and the driver agree on the catalog
+    private static final class Catalog {
+        private final InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        private final InMemoryTicketCategoryRepository ticketCategoryRepository = new InMemoryTicketCategoryRepository();
+        private final Map<UUID, Event> events = new HashMap<>();
+        private final List<TicketCategory> categories = new ArrayList<>();
+
+        private Catalog() {
+            User organizer = new User(new UUID(0, 1), "organizer", "secret", "FIRM");
+            LocalDateTime start = LocalDateTime.of(2026, 1, 1, 20, 0);
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                Event event = new Event(new UUID(1, i), "Event " + i, start.plusHours(i), "Venue " + (i % 50),
+                        EventType.CONCERT, organizer);
+                eventRepository.save(event);
+                events.put(event.getEventId(), event);
+                for (int c = 0; c < CATEGORIES_PER_EVENT; c++) {
+                    TicketCategory category = new TicketCategory(new UUID(2, (long) i * CATEGORIES_PER_EVENT + c),
+                            "Tier " + c, 4_000 + c * 3_000, Integer.MAX_VALUE / 2);
+                    category.setEvent(event);
+                    ticketCategoryRepository.save(category);
+                    categories.add(category);
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package com.ticketsystem;
 
+import com.ticketsystem.api.ApplicationContext;
+import com.ticketsystem.api.HttpTicketReservationAPI;
 import com.ticketsystem.api.TicketReservationAPI;
 
+import java.io.IOException;
+
 public class TicketReservationSystem {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--http")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            HttpTicketReservationAPI httpAPI = new HttpTicketReservationAPI(new ApplicationContext());
+            httpAPI.start(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(httpAPI::stop));
+            System.out.println("Ticket Reservation System listening on port " + httpAPI.getPort());
+            return;
+        }
+
         TicketReservationAPI ticketReservationAPI = new TicketReservationAPI();
         ticketReservationAPI.run();
     }
@@ -0,0 +1,153 @@
+package com.ticketsystem.api;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.CachingEventRepository;
+import com.ticketsystem.repository.EventRepository;
+import com.ticketsystem.repository.IEventRepository;
+import com.ticketsystem.repository.IReservationRepository;
+import com.ticketsystem.repository.ITicketCategoryRepository;
+import com.ticketsystem.repository.IUserRepository;
+import com.ticketsystem.repository.IndexedEventRepository;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.repository.ReservationRepository;
+import com.ticketsystem.repository.TicketCategoryRepository;
+import com.ticketsystem.repository.UserRepository;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.ReservationExecutor;
+import com.ticketsystem.service.ReservationService;
+import com.ticketsystem.service.ShardRouter;
+import com.ticketsystem.service.ShardServer;
+import com.ticketsystem.service.UserService;
+import com.ticketsystem.util.ConnectionPool;
+import com.ticketsystem.util.InstrumentedProxy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Wires repositories and services once so the console and HTTP front ends share the same stack.
+ */
+public class ApplicationContext implements AutoCloseable {
+    private static final String JOURNAL_PROPERTY = "ticketsystem.journal";
+    private static final String JOURNAL_FSYNC_PROPERTY = "ticketsystem.journal.fsync";
+    // "database" decides every reservation with a conditional update, for instances sharing one database
+    private static final String INVENTORY_PROPERTY = "ticketsystem.inventory";
+    // e.g. "a=127.0.0.1:7001,b=127.0.0.1:7002" with ticketsystem.shard.self=a
+    private static final String SHARDS_PROPERTY = "ticketsystem.shards";
+    private static final String SHARD_SELF_PROPERTY = "ticketsystem.shard.self";
+
+    private final ConnectionPool connectionPool;
+    private final ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository;
+    private final UserService userService;
+    private final EventService eventService;
+    private final ReservationService reservationService;
+    private final ReservationExecutor reservationExecutor;
+    private final ShardRouter shardRouter;
+    private final ShardServer shardServer;
+
+    public ApplicationContext() {
+        this(new ConnectionPool());
+    }
+
+    private ApplicationContext(ConnectionPool connectionPool) {
+        this(connectionPool,
+                new UserRepository(connectionPool),
+                new EventRepository(connectionPool),
+                new TicketCategoryRepository(connectionPool),
+                new ReservationRepository(connectionPool),
+                Path.of(System.getProperty(JOURNAL_PROPERTY, "reservations.journal")));
+    }
+
+    /**
+     * Builds the service stack on top of the given repositories, e.g. in-memory stand-ins.
+     */
+    public ApplicationContext(IUserRepository<User, UUID> userRepository,
+                              IEventRepository<Event, UUID> eventRepository,
+                              ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository,
+                              IReservationRepository<Reservation, UUID> reservationRepository) {
+        this(null, userRepository, eventRepository, ticketCategoryRepository, reservationRepository, temporaryJournal());
+    }
+
+    private ApplicationContext(ConnectionPool connectionPool,
+                               IUserRepository<User, UUID> userRepository,
+                               IEventRepository<Event, UUID> eventRepository,
+                               ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository,
+                               IReservationRepository<Reservation, UUID> reservationRepository,
+                               Path journalFile) {
+        // Every repository call is counted and timed; see MetricsRegistry
+        userRepository = InstrumentedProxy.wrap(IUserRepository.class, userRepository, "UserRepository");
+        ticketCategoryRepository = InstrumentedProxy.wrap(ITicketCategoryRepository.class, ticketCategoryRepository,
+                "TicketCategoryRepository");
+        reservationRepository = InstrumentedProxy.wrap(IReservationRepository.class, reservationRepository,
+                "ReservationRepository");
+        this.connectionPool = connectionPool;
+        this.ticketCategoryRepository = ticketCategoryRepository;
+        this.userService = new UserService(userRepository);
+        this.eventService = new EventService(InstrumentedProxy.wrap(IEventRepository.class,
+                new IndexedEventRepository(new CachingEventRepository(eventRepository)), "EventRepository"));
+        String shards = System.getProperty(SHARDS_PROPERTY);
+        this.shardRouter = shards == null ? null
+                : new ShardRouter(System.getProperty(SHARD_SELF_PROPERTY), ShardRouter.parseNodes(shards), eventService::getEventById);
+        ReservationJournal journal = "database".equals(System.getProperty(INVENTORY_PROPERTY)) ? null
+                : new ReservationJournal(journalFile, reservationRepository, 64 * 1024 * 1024, 1_000,
+                        Boolean.getBoolean(JOURNAL_FSYNC_PROPERTY));
+        this.reservationService = new ReservationService(eventService, reservationRepository, ticketCategoryRepository,
+                journal, shardRouter);
+        this.reservationExecutor = new ReservationExecutor(reservationService);
+        try {
+            this.shardServer = shardRouter == null ? null : new ShardServer(reservationService, shardRouter.getSelfAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start shard node " + shardRouter.getSelfId(), e);
+        }
+    }
+
+    public ITicketCategoryRepository<TicketCategory, UUID> getTicketCategoryRepository() {
+        return ticketCategoryRepository;
+    }
+
+    public UserService getUserService() {
+        return userService;
+    }
+
+    public EventService getEventService() {
+        return eventService;
+    }
+
+    public ReservationService getReservationService() {
+        return reservationService;
+    }
+
+    public ReservationExecutor getReservationExecutor() {
+        return reservationExecutor;
+    }
+
+    private static Path temporaryJournal() {
+        try {
+            Path file = Files.createTempFile("reservations", ".journal");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (shardServer != null) {
+            shardServer.close();
+            shardRouter.close();
+        }
+        reservationExecutor.close();
+        reservationService.shutdown();
+        userService.shutdown();
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+}
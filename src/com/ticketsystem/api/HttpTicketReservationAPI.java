@@ -0,0 +1,535 @@
+package com.ticketsystem.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.User;
+import com.ticketsystem.repository.EventCursor;
+import com.ticketsystem.repository.EventSearchQuery;
+import com.ticketsystem.repository.EventSearchResult;
+import com.ticketsystem.service.AvailabilityChange;
+import com.ticketsystem.service.AvailabilityFeed;
+import com.ticketsystem.service.EventAvailability;
+import com.ticketsystem.service.EventService;
+import com.ticketsystem.service.OrderLine;
+import com.ticketsystem.service.ReservationExecutor;
+import com.ticketsystem.service.ReservationOrder;
+import com.ticketsystem.service.ReservationService;
+import com.ticketsystem.service.UserService;
+import com.ticketsystem.util.MetricsRegistry;
+import com.ticketsystem.util.Money;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * JSON over HTTP front end. Every request runs on its own virtual thread, and callers identify
+ * themselves with a signed bearer token instead of server-side session state.
+ *
+ * <pre>
+ * POST   /api/users                          register, returns a token
+ * POST   /api/sessions                       login, returns a token
+ * GET    /api/events?from=&amp;to=[&amp;afterDate=&amp;afterId=&amp;limit=]
+ * GET    /api/events/search?[q=&amp;type=CONCERT,SPORTS&amp;from=&amp;to=&amp;limit=]   text search with facets
+ * GET    /api/events/{eventId}/categories
+ * GET    /api/events/{eventId}/availability/stream   server-sent events: a snapshot, then changes
+ * POST   /api/reservations                   {eventId, categoryId, quantity}   retries with the same Idempotency-Key header reserve once; the header needs a token
+ * POST   /api/orders                         {eventId, lines: [{categoryId, quantity}, ...]}   all lines or none
+ * POST   /api/holds                          {eventId, categoryId, quantity[, holdSeconds]}
+ * POST   /api/holds/{reservationId}/confirm
+ * DELETE /api/reservations/{reservationId}      also releases a hold
+ * GET    /api/me/reservations
+ * GET    /metrics                            plain-text call counts and latencies, no token needed
+ * </pre>
+ */
+public class HttpTicketReservationAPI {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long DEFAULT_HOLD_SECONDS = 300;
+    private static final long MAX_HOLD_SECONDS = 1_800;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final Duration STREAM_KEEPALIVE = Duration.ofSeconds(15);
+
+    private final ApplicationContext context;
+    private final UserService userService;
+    private final EventService eventService;
+    private final ReservationService reservationService;
+    private final ReservationExecutor reservationExecutor;
+    private final SessionTokens sessionTokens = new SessionTokens(Duration.ofHours(12));
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    public HttpTicketReservationAPI(ApplicationContext context) {
+        this.context = context;
+        this.userService = context.getUserService();
+        this.eventService = context.getEventService();
+        this.reservationService = context.getReservationService();
+        this.reservationExecutor = context.getReservationExecutor();
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.createContext("/metrics", HttpTicketReservationAPI::metrics);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+        executor.shutdown();
+        context.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+
+            if (method.equals("GET") && path.length == 4 && path[0].equals("events")
+                    && path[2].equals("availability") && path[3].equals("stream")) {
+                streamAvailability(exchange, parseId(path[1]));
+                return;
+            }
+            Object response;
+            if (method.equals("POST") && matches(path, "users")) {
+                response = register(exchange);
+            } else if (method.equals("POST") && matches(path, "sessions")) {
+                response = login(exchange);
+            } else if (method.equals("GET") && matches(path, "events")) {
+                response = searchEvents(exchange);
+            } else if (method.equals("GET") && matches(path, "events", "search")) {
+                response = searchEventText(exchange);
+            } else if (method.equals("GET") && path.length == 3 && path[0].equals("events") && path[2].equals("categories")) {
+                response = categories(parseId(path[1]));
+            } else if (method.equals("POST") && matches(path, "reservations")) {
+                response = createReservation(exchange);
+            } else if (method.equals("POST") && matches(path, "orders")) {
+                response = createOrder(exchange);
+            } else if (method.equals("POST") && matches(path, "holds")) {
+                response = holdSeats(exchange);
+            } else if (method.equals("POST") && path.length == 3 && path[0].equals("holds") && path[2].equals("confirm")) {
+                response = confirmHold(exchange, parseId(path[1]));
+            } else if (method.equals("DELETE") && path.length == 2 && path[0].equals("reservations")) {
+                response = cancelReservation(exchange, parseId(path[1]));
+            } else if (method.equals("GET") && matches(path, "me", "reservations")) {
+                response = myReservations(exchange);
+            } else {
+                throw new HttpError(404, "Not found");
+            }
+            send(exchange, 200, response);
+        } catch (HttpError e) {
+            send(exchange, e.status, Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(exchange, 400, Map.of("error", String.valueOf(e.getMessage())));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, Map.of("error", "Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object register(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        String role = requiredString(body, "role").toUpperCase();
+        if (!role.equals("USER") && !role.equals("FIRM")) {
+            throw new IllegalArgumentException("Role must be USER or FIRM");
+        }
+        User user = userService.registerUser(requiredString(body, "username"), requiredString(body, "password"), role);
+        return sessionJson(user);
+    }
+
+    private Object login(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        User user = userService.login(requiredString(body, "username"), requiredString(body, "password"))
+                .orElseThrow(() -> new HttpError(401, "Invalid username or password"));
+        return sessionJson(user);
+    }
+
+    private Object searchEvents(HttpExchange exchange) {
+        Map<String, String> query = query(exchange);
+        LocalDateTime from = LocalDateTime.parse(required(query, "from"));
+        LocalDateTime to = LocalDateTime.parse(required(query, "to"));
+        int limit = Math.min(Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE))), MAX_PAGE_SIZE);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        EventCursor after = null;
+        if (query.containsKey("afterDate") && query.containsKey("afterId")) {
+            after = new EventCursor(LocalDateTime.parse(query.get("afterDate")), parseId(query.get("afterId")));
+        }
+
+        List<Event> events = eventService.searchEventsByTimeInterval(from, to, after, limit);
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("events", events.stream().map(this::eventJson).toList());
+        if (events.size() == limit) {
+            Event last = events.get(events.size() - 1);
+            page.put("next", Map.of("afterDate", last.getDate(), "afterId", last.getEventId()));
+        }
+        return page;
+    }
+
+    private Object searchEventText(HttpExchange exchange) {
+        Map<String, String> query = query(exchange);
+        Set<EventType> types = EnumSet.noneOf(EventType.class);
+        if (query.containsKey("type")) {
+            for (String type : query.get("type").split(",")) {
+                try {
+                    types.add(EventType.valueOf(type.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown event type: " + type);
+                }
+            }
+        }
+        LocalDateTime from = query.containsKey("from") ? LocalDateTime.parse(query.get("from")) : null;
+        LocalDateTime to = query.containsKey("to") ? LocalDateTime.parse(query.get("to")) : null;
+        int limit = Math.min(Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE))), MAX_PAGE_SIZE);
+
+        EventSearchResult result = eventService.searchEvents(new EventSearchQuery(query.get("q"), types, from, to, limit));
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("type", result.typeCounts());
+        facets.put("month", result.monthCounts());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("events", result.events().stream().map(this::eventJson).toList());
+        json.put("totalHits", result.totalHits());
+        json.put("facets", facets);
+        return json;
+    }
+
+    private Object categories(UUID eventId) {
+        if (eventService.getEventById(eventId) == null) {
+            throw new HttpError(404, "Event not found");
+        }
+        List<Map<String, Object>> categories = new ArrayList<>();
+        reservationService.forEachCategory(eventId, (category, available, priceCents) -> {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("categoryId", category.getCategoryId());
+            json.put("name", category.getName());
+            json.put("price", Money.toDecimal(priceCents));
+            json.put("available", available);
+            categories.add(json);
+        });
+        return categories;
+    }
+
+    /**
+     * Sends the event's categories as a {@code snapshot} event, then each batch of changes as a
+     * {@code changes} event, until the client goes away. Subscribing before the snapshot is read
+     * means no change can fall between the two.
+     */
+    private void streamAvailability(HttpExchange exchange, UUID eventId) throws IOException {
+        if (eventService.getEventById(eventId) == null) {
+            throw new HttpError(404, "Event not found");
+        }
+        try (AvailabilityFeed.Subscription subscription = reservationService.subscribeToAvailability(eventId)) {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            writeEvent(out, "snapshot", categories(eventId));
+            while (!subscription.isClosed()) {
+                List<AvailabilityChange> changes = subscription.poll(STREAM_KEEPALIVE);
+                if (changes.isEmpty()) {
+                    // Comment line: keeps proxies from timing out and detects clients that left
+                    out.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                } else {
+                    writeEvent(out, "changes", changes.stream().map(change -> Map.of(
+                            "categoryId", change.categoryId(), "available", change.availableTickets())).toList());
+                }
+            }
+        } catch (IOException e) {
+            // The client disconnected
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeEvent(OutputStream out, String event, Object data) throws IOException {
+        out.write(("event: " + event + "\ndata: " + Json.write(data) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private Object createReservation(HttpExchange exchange) throws IOException {
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        Optional<SessionTokens.Session> session = idempotencyKey == null
+                ? session(exchange) : Optional.of(requireSession(exchange));
+        Map<String, Object> body = readBody(exchange);
+        int quantity = quantity(body.get("quantity"));
+        CompletableFuture<Reservation> reservation = reservationExecutor.createReservation(
+                parseId(requiredString(body, "eventId")),
+                parseId(requiredString(body, "categoryId")),
+                quantity,
+                session.map(SessionTokens.Session::userId).orElse(null),
+                idempotencyKey);
+        try {
+            return reservationJson(reservation.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Object createOrder(HttpExchange exchange) throws IOException {
+        Optional<SessionTokens.Session> session = session(exchange);
+        Map<String, Object> body = readBody(exchange);
+        if (!(body.get("lines") instanceof List<?> lineList)) {
+            throw new IllegalArgumentException("Missing field: lines");
+        }
+        List<OrderLine> lines = new ArrayList<>(lineList.size());
+        for (Object item : lineList) {
+            if (!(item instanceof Map<?, ?> line) || !(line.get("categoryId") instanceof String categoryId)) {
+                throw new IllegalArgumentException("Each line needs a categoryId and an integer quantity");
+            }
+            lines.add(new OrderLine(parseId(categoryId), quantity(line.get("quantity"))));
+        }
+        UUID eventId = parseId(requiredString(body, "eventId"));
+        CompletableFuture<ReservationOrder> order = reservationExecutor.createOrder(eventId, lines,
+                session.map(SessionTokens.Session::userId).orElse(null));
+        ReservationOrder placed;
+        try {
+            placed = order.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("orderId", placed.orderId());
+        json.put("eventId", placed.eventId());
+        json.put("totalPrice", Money.toDecimal(placed.getTotalPriceCents()));
+        json.put("reservations", placed.reservations().stream().map(this::reservationJson).toList());
+        return json;
+    }
+
+    private Object holdSeats(HttpExchange exchange) throws IOException {
+        Optional<SessionTokens.Session> session = session(exchange);
+        Map<String, Object> body = readBody(exchange);
+        int quantity = quantity(body.get("quantity"));
+        Object holdSeconds = body.getOrDefault("holdSeconds", DEFAULT_HOLD_SECONDS);
+        if (!(holdSeconds instanceof Long seconds) || seconds <= 0 || seconds > MAX_HOLD_SECONDS) {
+            throw new IllegalArgumentException("holdSeconds must be an integer between 1 and " + MAX_HOLD_SECONDS);
+        }
+        return reservationJson(reservationService.holdSeats(
+                parseId(requiredString(body, "eventId")),
+                parseId(requiredString(body, "categoryId")),
+                quantity,
+                session.map(SessionTokens.Session::userId).orElse(null),
+                Duration.ofSeconds(seconds)));
+    }
+
+    private Object confirmHold(HttpExchange exchange, UUID reservationId) {
+        requireOwner(exchange, reservationId);
+        return reservationJson(reservationService.confirmHold(reservationId));
+    }
+
+    private Object cancelReservation(HttpExchange exchange, UUID reservationId) {
+        requireOwner(exchange, reservationId);
+        reservationService.cancelReservation(reservationId);
+        return Map.of("reservationId", reservationId, "status", "CANCELLED");
+    }
+
+    private void requireOwner(HttpExchange exchange, UUID reservationId) {
+        Reservation reservation = reservationService.getReservationById(reservationId);
+        if (reservation == null) {
+            throw new HttpError(404, "Reservation not found");
+        }
+        // Reservations made without a session belong to nobody, so nobody can change them here
+        UUID userId = requireSession(exchange).userId();
+        if (!userId.equals(reservation.getUserId())) {
+            throw new HttpError(403, "Reservation belongs to another user");
+        }
+    }
+
+    private Object myReservations(HttpExchange exchange) {
+        UUID userId = requireSession(exchange).userId();
+        return reservationService.getReservationsByUserId(userId).stream()
+                .map(this::reservationJson)
+                .toList();
+    }
+
+    private Map<String, Object> sessionJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("token", sessionTokens.issue(user));
+        json.put("userId", user.getUserId());
+        json.put("username", user.getUsername());
+        json.put("role", user.getRole());
+        return json;
+    }
+
+    private Map<String, Object> eventJson(Event event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("eventId", event.getEventId());
+        json.put("name", event.getName());
+        json.put("date", event.getDate());
+        json.put("location", event.getLocation());
+        json.put("type", event.getType());
+        EventAvailability availability = reservationService.getEventAvailability(event.getEventId());
+        json.put("availableTickets", availability.availableTickets());
+        json.put("lowestPrice", availability.isSoldOut() ? null : Money.toDecimal(availability.lowestPriceCents()));
+        return json;
+    }
+
+    private Map<String, Object> reservationJson(Reservation reservation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("reservationId", reservation.getReservationId());
+        json.put("reservationNumber", reservation.generateReservationNumber());
+        json.put("eventId", reservation.getEvent().getEventId());
+        json.put("eventName", reservation.getEvent().getName());
+        json.put("eventDate", reservation.getEvent().getDate());
+        json.put("categoryId", reservation.getCategory().getCategoryId());
+        json.put("categoryName", reservation.getCategory().getName());
+        json.put("quantity", reservation.getQuantity());
+        json.put("totalPrice", Money.toDecimal(reservation.getTotalPriceCents()));
+        json.put("status", reservation.getStatus());
+        json.put("reservationDate", reservation.getReservationDate());
+        if (reservation.isHeld()) {
+            json.put("holdExpiresAt", reservation.getHoldExpiresAt());
+        }
+        return json;
+    }
+
+    private Optional<SessionTokens.Session> session(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null) {
+            return Optional.empty();
+        }
+        if (!authorization.startsWith("Bearer ")) {
+            throw new HttpError(401, "Expected a bearer token");
+        }
+        return Optional.of(sessionTokens.verify(authorization.substring("Bearer ".length()))
+                .orElseThrow(() -> new HttpError(401, "Invalid or expired token")));
+    }
+
+    private SessionTokens.Session requireSession(HttpExchange exchange) {
+        return session(exchange).orElseThrow(() -> new HttpError(401, "Login required"));
+    }
+
+    private static boolean matches(String[] path, String... expected) {
+        return Arrays.equals(path, expected);
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid id: " + value);
+        }
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing query parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String requiredString(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof String value)) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    // JSON numbers parse as Long or Double; anything else, or a Long outside int range, is a bad request
+    private static int quantity(Object value) {
+        if (!(value instanceof Long quantity) || quantity <= 0 || quantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("quantity must be a positive integer");
+        }
+        return quantity.intValue();
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void metrics(HttpExchange exchange) throws IOException {
+        byte[] bytes = MetricsRegistry.global().render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        // One byte past the limit tells an oversized body apart, with or without Content-Length
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new HttpError(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ticketsystem.api;
+
+import com.ticketsystem.model.User;
+import com.ticketsystem.util.ServerSecret;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stateless session tokens. A token carries the user id, role and expiry and is signed with
+ * HMAC-SHA256, so any request handler can verify it without shared session state.
+ *
+ * <p>Tokens are signed with the {@link ServerSecret}, so they are accepted by every node and
+ * survive restarts only when it is configured.
+ */
+public class SessionTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public SessionTokens(Duration ttl) {
+        this(ServerSecret.get(), ttl);
+    }
+
+    public SessionTokens(byte[] secret, Duration ttl) {
+        if (secret.length < ServerSecret.MIN_BYTES) {
+            throw new IllegalArgumentException("Session secret must be at least " + ServerSecret.MIN_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    public String issue(User user) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = user.getUserId() + "|" + user.getRole() + "|" + expiresAt;
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    public Optional<Session> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || Instant.now().getEpochSecond() > Long.parseLong(parts[2])) {
+                return Optional.empty();
+            }
+            return Optional.of(new Session(UUID.fromString(parts[0]), parts[1]));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Session(UUID userId, String role) {
+    }
+}
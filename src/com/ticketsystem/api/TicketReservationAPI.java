@@ -1,27 +1,25 @@
 package com.ticketsystem.api;
 
 import com.ticketsystem.model.*;
-import com.ticketsystem.repository.EventRepository;
-import com.ticketsystem.repository.ReservationRepository;
-import com.ticketsystem.repository.TicketCategoryRepository;
-import com.ticketsystem.repository.UserRepository;
+import com.ticketsystem.repository.EventSearchQuery;
+import com.ticketsystem.repository.EventSearchResult;
 import com.ticketsystem.service.EventService;
 import com.ticketsystem.service.ReservationService;
+import com.ticketsystem.service.RevenueReport;
 import com.ticketsystem.service.UserService;
-import com.ticketsystem.util.DatabaseConnection;
+import com.ticketsystem.util.Money;
 
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class TicketReservationAPI {
-    private final UserRepository userRepository;
-    private final EventRepository eventRepository;
-    private final TicketCategoryRepository ticketCategoryRepository;
-    private final ReservationRepository reservationRepository;
+    private static final int SEARCH_LIMIT = 20;
+
+    private final ApplicationContext context;
     private final UserService userService;
     private final EventService eventService;
     private final ReservationService reservationService;
@@ -31,19 +29,14 @@ public class TicketReservationAPI {
     Scanner scanner = new Scanner(System.in);
 
     public TicketReservationAPI() {
-        try {
-            this.userRepository = new UserRepository(DatabaseConnection.getConnection());
-            this.eventRepository = new EventRepository(DatabaseConnection.getConnection(), userRepository);
-            this.ticketCategoryRepository = new TicketCategoryRepository(DatabaseConnection.getConnection());
-            this.reservationRepository = new ReservationRepository(DatabaseConnection.getConnection(), userRepository);
-
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        this(new ApplicationContext());
+    }
 
-        this.userService = new UserService(userRepository);
-        this.eventService = new EventService(eventRepository);
-        this.reservationService = new ReservationService(eventService, reservationRepository, ticketCategoryRepository);
+    public TicketReservationAPI(ApplicationContext context) {
+        this.context = context;
+        this.userService = context.getUserService();
+        this.eventService = context.getEventService();
+        this.reservationService = context.getReservationService();
     }
 
     private void printMainMenu() {
@@ -69,7 +62,8 @@ public class TicketReservationAPI {
         System.out.println("=== Ticket Reservation System ===");
         System.out.println("1. Create Event");
         System.out.println("2. Add Ticket Category To An Event");
-        System.out.println("3. Logout");
+        System.out.println("3. Sales Report");
+        System.out.println("4. Logout");
         System.out.println("Enter your choice:");
     }
 
@@ -77,6 +71,9 @@ public class TicketReservationAPI {
     private void searchEvents() {
         System.out.println("\n=== Search Events ===");
 
+        System.out.print("Enter keywords for name or location (leave empty for all):");
+        String keywords = scanner.nextLine();
+
         System.out.print("Enter start date time (yyyy-MM-DD HH:mm):");
         String strStartDate = scanner.nextLine();
         LocalDateTime startDate;
@@ -102,7 +99,22 @@ public class TicketReservationAPI {
 
         System.out.println("Available events:");
 
-        List<Event> events = eventService.searchEventsByTimeInterval(startDate, endDate);
+        List<Event> events;
+        if (keywords.isBlank()) {
+            events = eventService.searchEventsByTimeInterval(startDate, endDate);
+        } else {
+            EventSearchResult result;
+            try {
+                result = eventService.searchEvents(new EventSearchQuery(keywords, null, startDate, endDate, SEARCH_LIMIT));
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+            events = result.events();
+            if (result.totalHits() > events.size()) {
+                System.out.println("Showing the first " + events.size() + " of " + result.totalHits() + " matches.");
+            }
+        }
         if (events.isEmpty()) {
             System.out.println("No events available.");
             return;
@@ -116,14 +128,11 @@ public class TicketReservationAPI {
             System.out.println();
             System.out.println("Available tickets:");
 
-            List<TicketCategory> categoriesForEvent = ticketCategoryRepository.findAllByEvent(event.getEventId());
-
-            for (TicketCategory category : categoriesForEvent) {
-                System.out.printf("- %s: $%.2f (%d available)%n",
-                        category.getName(),
-                        category.getPrice(),
-                        category.getAvailableTickets());
-            }
+            reservationService.forEachCategory(event.getEventId(), (category, available, priceCents) ->
+                    System.out.printf("- %s: $%s (%d available)%n",
+                            category.getName(),
+                            Money.format(priceCents),
+                            available));
 
             System.out.println();
         }
@@ -152,17 +161,17 @@ public class TicketReservationAPI {
         }
 
         Event selectedEvent = events.get(eventChoice - 1);
-        List<TicketCategory> categories = ticketCategoryRepository.findAllByEvent(selectedEvent.getEventId());
+        List<TicketCategory> categories = new ArrayList<>();
 
         System.out.println("Select ticket category (enter category number):");
-        for (int i = 0; i < categories.size(); i++) {
-            TicketCategory category = categories.get(i);
-            System.out.printf("%d. %s - $%.2f (%d available)%n",
-                    i + 1,
+        reservationService.forEachCategory(selectedEvent.getEventId(), (category, available, priceCents) -> {
+            categories.add(category);
+            System.out.printf("%d. %s - $%s (%d available)%n",
+                    categories.size(),
                     category.getName(),
-                    category.getPrice(),
-                    category.getAvailableTickets());
-        }
+                    Money.format(priceCents),
+                    available);
+        });
 
         int categoryChoice = scanner.nextInt();
         scanner.nextLine(); // Consume newline
@@ -186,7 +195,7 @@ public class TicketReservationAPI {
 
             System.out.println("\nReservation successful!");
             System.out.println("Reservation number: " + reservation.generateReservationNumber());
-            System.out.printf("Total price: $%.2f%n", reservation.getTotalPrice());
+            System.out.printf("Total price: $%s%n", Money.format(reservation.getTotalPriceCents()));
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -251,7 +260,7 @@ public class TicketReservationAPI {
             System.out.println("Date: " + reservation.getEvent().getDate());
             System.out.println("Category: " + reservation.getCategory().getName());
             System.out.println("Quantity: " + reservation.getQuantity());
-            System.out.printf("Total price: $%.2f%n", reservation.getTotalPrice());
+            System.out.printf("Total price: $%s%n", Money.format(reservation.getTotalPriceCents()));
             System.out.println("Status: " + reservation.getStatus());
         }
     }
@@ -329,19 +338,47 @@ public class TicketReservationAPI {
         String categoryName = scanner.nextLine();
 
         System.out.print("Enter category price:");
-        double price = scanner.nextDouble();
-        scanner.nextLine();
+        long priceCents;
+        try {
+            priceCents = Money.parseCents(scanner.nextLine());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            System.out.println("Invalid price. Please try again.");
+            return;
+        }
 
         System.out.print("Enter available tickets:");
         int availableTickets = scanner.nextInt();
         scanner.nextLine();
 
-        TicketCategory ticketCategory = new TicketCategory(categoryName, selectedEvent, price, availableTickets);
-        ticketCategoryRepository.save(ticketCategory);
+        TicketCategory ticketCategory = new TicketCategory(categoryName, selectedEvent, priceCents, availableTickets);
+        try {
+            reservationService.addTicketCategory(ticketCategory);
+        } catch (RuntimeException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
         System.out.println("Ticket category for given event created successfully.");
         
     }
 
+    private void salesReport() {
+        System.out.println("\n=== Sales Report ===");
+        List<Event> events = eventService.getEventsByOrganizer(currentUser.getUserId());
+        if (events.isEmpty()) {
+            System.out.println("You have no events.");
+            return;
+        }
+
+        RevenueReport report = reservationService.getRevenueReport();
+        long totalCents = 0;
+        for (Event event : events) {
+            long revenueCents = report.getRevenueCents(event.getEventId());
+            totalCents += revenueCents;
+            System.out.printf("- %s: $%s%n", event.getName(), Money.format(revenueCents));
+        }
+        System.out.printf("Total: $%s%n", Money.format(totalCents));
+    }
+
     public void run() {
         while (true) {
             if (currentUser == null) {
@@ -385,6 +422,7 @@ public class TicketReservationAPI {
                         break;
                     case 0:
                         System.out.println("Goodbye!");
+                        context.close();
                         return;
                     default:
                         System.out.println("Invalid choice. Please try again.");
@@ -399,10 +437,14 @@ public class TicketReservationAPI {
                         addTicketCategoryToAnEvent();
                         break;
                     case 3:
+                        salesReport();
+                        break;
+                    case 4:
                         logout();
                         break;
                     case 0:
                         System.out.println("Goodbye!");
+                        context.close();
                         return;
                     default:
                         System.out.println("Invalid choice. Please try again.");
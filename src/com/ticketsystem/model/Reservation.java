@@ -14,6 +14,7 @@ public class Reservation {
     private LocalDateTime reservationDate;
     private String status;
     private UUID userId; // Can be null for anonymous reservations
+    private LocalDateTime holdExpiresAt; // Only set while the reservation is HELD
 
     public Reservation(Event event, TicketCategory category, int quantity, UUID userId) {
         this.reservationId = UUID.randomUUID();
@@ -25,6 +26,23 @@ public class Reservation {
         this.userId = userId;
     }
 
+    /**
+     * Creates a confirmed reservation under a given id, e.g. one derived from an idempotency key.
+     */
+    public Reservation(UUID reservationId, Event event, TicketCategory category, int quantity, UUID userId) {
+        this(event, category, quantity, userId);
+        this.reservationId = reservationId;
+    }
+
+    /**
+     * Creates a temporary hold on the seats that lapses at the given time unless confirmed.
+     */
+    public Reservation(Event event, TicketCategory category, int quantity, UUID userId, LocalDateTime holdExpiresAt) {
+        this(event, category, quantity, userId);
+        this.status = "HELD";
+        this.holdExpiresAt = holdExpiresAt;
+    }
+
     public Reservation(UUID reservationId, Event event, TicketCategory category, int quantity, LocalDateTime reservationDate, String status, UUID userId) {
         this.reservationId = reservationId;
         this.event = event;
@@ -35,11 +53,26 @@ public class Reservation {
         this.userId = userId;
     }
 
+    public Reservation(UUID reservationId, Event event, TicketCategory category, int quantity, LocalDateTime reservationDate,
+                       String status, UUID userId, LocalDateTime holdExpiresAt) {
+        this(reservationId, event, category, quantity, reservationDate, status, userId);
+        this.holdExpiresAt = holdExpiresAt;
+    }
+
     public String generateReservationNumber() {
         // Format: First 8 characters of reservationId
         return reservationId.toString().substring(0, 8).toUpperCase();
     }
 
+    public boolean confirmHold() {
+        if (!"HELD".equals(status)) {
+            return false;
+        }
+        status = "CONFIRMED";
+        holdExpiresAt = null;
+        return true;
+    }
+
     public boolean cancelReservation() {
         if ("CANCELLED".equals(status)) {
             return false;
@@ -78,7 +111,18 @@ public class Reservation {
         return userId;
     }
 
-    public double getTotalPrice() {
-        return category.getPrice() * quantity;
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    public boolean isHeld() {
+        return "HELD".equals(status);
+    }
+
+    /**
+     * Returns the total in cents.
+     */
+    public long getTotalPriceCents() {
+        return Math.multiplyExact(category.getPriceCents(), (long) quantity);
     }
 } 
\ No newline at end of file
@@ -8,36 +8,46 @@ import java.util.UUID;
 public class TicketCategory {
     private UUID categoryId;
     private Event event;
+    private UUID eventId;
     private String name;
-    private double price;
+    private long priceCents;
     private int availableTickets;
 
-    public TicketCategory(String name, Event event, double price, int availableTickets) {
+    public TicketCategory(String name, Event event, long priceCents, int availableTickets) {
         this.categoryId = UUID.randomUUID();
         this.event = event;
+        this.eventId = event == null ? null : event.getEventId();
         this.name = name;
-        this.price = price;
+        this.priceCents = priceCents;
         this.availableTickets = availableTickets;
     }
 
-    public TicketCategory(UUID categoryId, String name, double price) {
+    /**
+     * A category read from storage, which knows its event only by id.
+     */
+    public TicketCategory(UUID categoryId, UUID eventId, String name, long priceCents, int availableTickets) {
+        this(categoryId, name, priceCents, availableTickets);
+        this.eventId = eventId;
+    }
+
+    public TicketCategory(UUID categoryId, String name, long priceCents) {
         this.categoryId = categoryId;
         this.name = name;
-        this.price = price;
+        this.priceCents = priceCents;
     }
 
-    public TicketCategory(UUID categoryId, String name, double price, int availableTickets) {
+    public TicketCategory(UUID categoryId, String name, long priceCents, int availableTickets) {
         this.categoryId = categoryId;
         this.name = name;
-        this.price = price;
+        this.priceCents = priceCents;
         this.availableTickets = availableTickets;
     }
 
-    public void updatePrice(double newPrice) {
-        if (newPrice < 0) {
+    public void updatePrice(long newPriceCents) {
+        if (newPriceCents < 0) {
             throw new IllegalArgumentException("Price cannot be negative");
         }
-        this.price = newPrice;
+        this.priceCents = newPriceCents;
     }
 
     public void updateAvailability(int tickets) {
@@ -64,6 +74,14 @@ public class TicketCategory {
 
     public void setEvent(Event event) {
         this.event = event;
+        this.eventId = event == null ? null : event.getEventId();
+    }
+
+    /**
+     * Id of the event the category belongs to; null when it was created without one.
+     */
+    public UUID getEventId() {
+        return eventId;
     }
 
     // Getters and Setters
@@ -79,8 +97,11 @@ public class TicketCategory {
         this.name = name;
     }
 
-    public double getPrice() {
-        return price;
+    /**
+     * Returns the price in cents.
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     public int getAvailableTickets() {
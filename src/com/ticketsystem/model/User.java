@@ -1,5 +1,7 @@
 package com.ticketsystem.model;
 
+import com.ticketsystem.util.PasswordHasher;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -10,18 +12,21 @@ import java.util.UUID;
 public class User {
     private UUID userId;
     private String username;
-    private String password;
+    private String password; // PBKDF2 hash, see PasswordHasher
     private String role;
     private List<Reservation> reservations;
 
     public User(String username, String password, String role) {
         this.userId = UUID.randomUUID();
         this.username = username;
-        this.password = password;
+        this.password = PasswordHasher.hash(password);
         this.role = role;
         this.reservations = new ArrayList<>();
     }
 
+    /**
+     * Rebuilds a stored user; the password is the stored hash, not the plaintext.
+     */
     public User(UUID userId, String username, String password, String role) {
         this.userId = userId;
         this.username = username;
@@ -63,15 +68,18 @@ public class User {
     }
 
     public boolean verifyPassword(String password) {
-        return this.password.equals(password);
+        return PasswordHasher.verify(password, this.password);
     }
 
+    /**
+     * Returns the stored hash.
+     */
     public String getPassword() {
         return password;
     }
 
     public void setPassword(String password) {
-        this.password = password;
+        this.password = PasswordHasher.hash(password);
     }
 
     public String getRole() {
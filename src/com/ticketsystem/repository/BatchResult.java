@@ -0,0 +1,38 @@
+package com.ticketsystem.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of a batched {@link IRepository#saveAll} call, with the time spent on each
+ * committed chunk.
+ */
+public class BatchResult {
+    private final int rowCount;
+    private final List<Long> chunkNanos;
+
+    public BatchResult(int rowCount, List<Long> chunkNanos) {
+        this.rowCount = rowCount;
+        this.chunkNanos = List.copyOf(chunkNanos);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getChunkCount() {
+        return chunkNanos.size();
+    }
+
+    public List<Long> getChunkNanos() {
+        return chunkNanos;
+    }
+
+    public long getTotalNanos() {
+        return chunkNanos.stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d chunks, %.3f ms", rowCount, getChunkCount(), getTotalNanos() / 1_000_000.0);
+    }
+}
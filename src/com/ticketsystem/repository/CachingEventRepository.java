@@ -0,0 +1,222 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of an event repository. Single events are kept in a bounded
+ * LRU map and the full catalog is kept as one snapshot; both expire after a fixed TTL and are
+ * invalidated on every write that goes through this repository.
+ */
+public class CachingEventRepository implements IEventRepository<Event, UUID> {
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final IEventRepository<Event, UUID> delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<UUID, CacheEntry<Event>> entries;
+    private volatile CacheEntry<List<Event>> allEvents;
+    // Bumped on every write so a snapshot loaded concurrently with a write is not installed
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingEventRepository(IEventRepository<Event, UUID> delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    public CachingEventRepository(IEventRepository<Event, UUID> delegate, int maxEntries, Duration ttl) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CacheEntry<Event>> eldest) {
+                if (size() > CachingEventRepository.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void save(Event obj) {
+        delegate.save(obj);
+        synchronized (entries) {
+            writeVersion.incrementAndGet();
+            entries.put(obj.getEventId(), new CacheEntry<>(obj, expiry()));
+            allEvents = null;
+        }
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Event> objs, int chunkSize) {
+        BatchResult result = delegate.saveAll(objs, chunkSize);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public Optional<Event> findById(UUID id) {
+        synchronized (entries) {
+            CacheEntry<Event> entry = entries.get(id);
+            if (entry != null && entry.isFresh()) {
+                hits.increment();
+                return Optional.of(entry.value);
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        long version = writeVersion.get();
+        Optional<Event> event = delegate.findById(id);
+        event.ifPresent(value -> {
+            synchronized (entries) {
+                if (version == writeVersion.get()) {
+                    entries.put(id, new CacheEntry<>(value, expiry()));
+                }
+            }
+        });
+        return event;
+    }
+
+    @Override
+    public List<Event> findAll() {
+        CacheEntry<List<Event>> snapshot = allEvents;
+        if (snapshot != null && snapshot.isFresh()) {
+            hits.increment();
+            return snapshot.value;
+        }
+
+        misses.increment();
+        long version = writeVersion.get();
+        List<Event> events = List.copyOf(delegate.findAll());
+        long expiresAt = expiry();
+        synchronized (entries) {
+            if (version == writeVersion.get()) {
+                for (Event event : events) {
+                    entries.put(event.getEventId(), new CacheEntry<>(event, expiresAt));
+                }
+                allEvents = new CacheEntry<>(events, expiresAt);
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public Stream<Event> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Event> findPage(UUID afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        delegate.deleteById(id);
+        invalidate(id);
+    }
+
+    @Override
+    public void update(UUID id, Event newObj) {
+        delegate.update(id, newObj);
+        invalidate(id);
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate) {
+        return findAll().stream()
+                .filter(event -> !event.getDate().isBefore(startDate) && !event.getDate().isAfter(endDate))
+                .toList();
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit) {
+        return delegate.findEventsByTimeInterval(startDate, endDate, after, limit);
+    }
+
+    @Override
+    public List<Event> findEventsByOrganizer(UUID organizerId) {
+        return findAll().stream()
+                .filter(event -> event.getOrganizer() != null && organizerId.equals(event.getOrganizer().getUserId()))
+                .toList();
+    }
+
+    @Override
+    public EventSearchResult search(EventSearchQuery query) {
+        return delegate.search(query);
+    }
+
+    public void invalidate(UUID id) {
+        synchronized (entries) {
+            writeVersion.incrementAndGet();
+            entries.remove(id);
+            allEvents = null;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            writeVersion.incrementAndGet();
+            entries.clear();
+            allEvents = null;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long expiry() {
+        return System.nanoTime() + ttlNanos;
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Keyset position in the (event date, event id) ordering used for paginated event queries.
+ * Event ids are compared as unsigned 128-bit values, the same way PostgreSQL orders UUIDs.
+ */
+public final class EventCursor implements Comparable<EventCursor> {
+    static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final LocalDateTime date;
+    private final UUID eventId;
+
+    public EventCursor(LocalDateTime date, UUID eventId) {
+        this.date = date;
+        this.eventId = eventId;
+    }
+
+    /**
+     * Cursor positioned on the given event; the next page starts right after it.
+     */
+    public static EventCursor after(Event event) {
+        return new EventCursor(event.getDate(), event.getEventId());
+    }
+
+    static EventCursor lowest(LocalDateTime date) {
+        return new EventCursor(date, MIN_ID);
+    }
+
+    static EventCursor highest(LocalDateTime date) {
+        return new EventCursor(date, MAX_ID);
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public int compareTo(EventCursor other) {
+        int byDate = date.compareTo(other.date);
+        return byDate != 0 ? byDate : UUID_ORDER.compare(eventId, other.eventId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EventCursor other)) {
+            return false;
+        }
+        return date.equals(other.date) && eventId.equals(other.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * date.hashCode() + eventId.hashCode();
+    }
+}
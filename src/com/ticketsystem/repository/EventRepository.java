@@ -3,35 +3,39 @@ package com.ticketsystem.repository;
 import com.ticketsystem.model.Event;
 import com.ticketsystem.model.EventType;
 import com.ticketsystem.model.User;
+import com.ticketsystem.util.ConnectionPool;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class EventRepository implements IEventRepository<Event, UUID> {
-    private final Connection connection;
-    private final UserRepository userRepository;
+    private static final String INSERT_SQL = "INSERT INTO events (event_id, name, event_date, location, organizer_id, event_type) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_WITH_ORGANIZER = """
+            SELECT e.event_id, e.name AS event_name, e.event_date, e.location, e.event_type, e.organizer_id,
+                   u.username AS organizer_username, u.password AS organizer_password, u.role AS organizer_role
+            FROM events e
+            LEFT JOIN users u ON e.organizer_id = u.user_id""";
 
-    public EventRepository(Connection connection, UserRepository userRepository) {
-        this.connection = connection;
-        this.userRepository = userRepository;
+    private final ConnectionPool connectionPool;
+
+    public EventRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public void save(Event obj) {
-        String sql = "INSERT INTO events (event_id, name, event_date, location, organizer_id, event_type) VALUES (?, ?, ?, ?, ?, ?)";
-        try {
+        try (Connection connection = connectionPool.getConnection()) {
             connection.setAutoCommit(false);
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setObject(1, obj.getEventId());
-                stmt.setString(2, obj.getName());
-                stmt.setTimestamp(3, Timestamp.valueOf(obj.getDate()));
-                stmt.setString(4, obj.getLocation());
-                stmt.setObject(5, obj.getOrganizer().getUserId());
-                stmt.setString(6, obj.getType().name());
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+                bindInsert(stmt, obj);
                 stmt.executeUpdate();
                 connection.commit();
 
@@ -41,27 +45,20 @@ public class EventRepository implements IEventRepository<Event, UUID> {
         }
     }
 
+    @Override
+    public BatchResult saveAll(Collection<Event> objs, int chunkSize) {
+        return JdbcBatch.execute(connectionPool, INSERT_SQL, objs, chunkSize, this::bindInsert);
+    }
+
     @Override
     public Optional<Event> findById(UUID s) {
-        String sql = "SELECT * FROM events WHERE event_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = SELECT_WITH_ORGANIZER + " WHERE e.event_id = ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                UUID organizerId = rs.getObject("organizer_id", UUID.class);
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-                if (organizerOpt.isEmpty()) {
-                    return Optional.empty();
-                }
-                Event event = new Event(
-                        rs.getObject("event_id", UUID.class),
-                        rs.getString("name"),
-                        rs.getTimestamp("event_date").toLocalDateTime(),
-                        rs.getString("location"),
-                        EventType.valueOf(rs.getString("event_type")),
-                        organizerOpt.get()
-                );
-                return Optional.of(event);
+                return Optional.of(mapEvent(rs, new HashMap<>()));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -71,25 +68,13 @@ public class EventRepository implements IEventRepository<Event, UUID> {
 
     @Override
     public List<Event> findAll() {
-        String sql = "SELECT * FROM events";
         List<Event> events = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SELECT_WITH_ORGANIZER)) {
             ResultSet rs = stmt.executeQuery();
+            Map<UUID, User> organizers = new HashMap<>();
             while (rs.next()) {
-                UUID organizerId = rs.getObject("organizer_id", UUID.class);
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-                if (organizerOpt.isEmpty()) {
-
-                }
-                Event event = new Event(
-                        rs.getObject("event_id", UUID.class),
-                        rs.getString("name"),
-                        rs.getTimestamp("event_date").toLocalDateTime(),
-                        rs.getString("location"),
-                        EventType.valueOf(rs.getString("event_type")),
-                        organizerOpt.get()
-                );
-                events.add(event);
+                events.add(mapEvent(rs, organizers));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -97,10 +82,38 @@ public class EventRepository implements IEventRepository<Event, UUID> {
         return events;
     }
 
+    @Override
+    public Stream<Event> streamAll() {
+        Map<UUID, User> organizers = new HashMap<>();
+        return JdbcStream.query(connectionPool, SELECT_WITH_ORGANIZER, stmt -> { }, rs -> mapEvent(rs, organizers));
+    }
+
+    @Override
+    public List<Event> findPage(UUID afterId, int limit) {
+        List<Event> events = new ArrayList<>();
+        String sql = SELECT_WITH_ORGANIZER + (afterId != null ? " WHERE e.event_id > ?" : "") + " ORDER BY e.event_id LIMIT ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (afterId != null) {
+                stmt.setObject(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, User> organizers = new HashMap<>();
+            while (rs.next()) {
+                events.add(mapEvent(rs, organizers));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return events;
+    }
+
     @Override
     public void deleteById(UUID s) {
         String sql = "DELETE FROM events WHERE event_id = ?";
-        try {
+        try (Connection connection = connectionPool.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
                 stmt.setObject(1, s);
@@ -115,7 +128,7 @@ public class EventRepository implements IEventRepository<Event, UUID> {
     @Override
     public void update(UUID s, Event newObj) {
         String sql = "UPDATE events SET name = ?, event_date = ?, location = ?, event_type = ? WHERE event_id = ?";
-        try {
+        try (Connection connection = connectionPool.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
                 stmt.setString(1, newObj.getName());
@@ -134,28 +147,45 @@ public class EventRepository implements IEventRepository<Event, UUID> {
     @Override
     public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate) {
         List<Event> events = new ArrayList<>();
-        String sql = "SELECT * FROM events WHERE event_date >= ? AND event_date <= ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = SELECT_WITH_ORGANIZER + " WHERE e.event_date >= ? AND e.event_date <= ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
 
             stmt.setTimestamp(1, Timestamp.valueOf(startDate));
             stmt.setTimestamp(2, Timestamp.valueOf(endDate));
 
             ResultSet rs = stmt.executeQuery();
+            Map<UUID, User> organizers = new HashMap<>();
             while (rs.next()) {
-                UUID organizerId = rs.getObject("organizer_id", UUID.class);
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-                if (organizerOpt.isEmpty()) {
-
-                }
-                Event event = new Event(
-                        rs.getObject("event_id", UUID.class),
-                        rs.getString("name"),
-                        rs.getTimestamp("event_date").toLocalDateTime(),
-                        rs.getString("location"),
-                        EventType.valueOf(rs.getString("event_type")),
-                        organizerOpt.get()
-                );
-                events.add(event);
+                events.add(mapEvent(rs, organizers));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return events;
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit) {
+        List<Event> events = new ArrayList<>();
+        String sql = SELECT_WITH_ORGANIZER + " WHERE e.event_date >= ? AND e.event_date <= ?"
+                + (after != null ? " AND (e.event_date, e.event_id) > (?, ?)" : "")
+                + " ORDER BY e.event_date, e.event_id LIMIT ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setTimestamp(index++, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(index++, Timestamp.valueOf(endDate));
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(after.getDate()));
+                stmt.setObject(index++, after.getEventId());
+            }
+            stmt.setInt(index, limit);
+
+            ResultSet rs = stmt.executeQuery();
+            Map<UUID, User> organizers = new HashMap<>();
+            while (rs.next()) {
+                events.add(mapEvent(rs, organizers));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -166,26 +196,16 @@ public class EventRepository implements IEventRepository<Event, UUID> {
     @Override
     public List<Event> findEventsByOrganizer(UUID organizerId) {
         List<Event> events = new ArrayList<>();
-        String sql = "SELECT * FROM events WHERE organizer_id = ?";
+        String sql = SELECT_WITH_ORGANIZER + " WHERE e.organizer_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, organizerId);
             ResultSet rs = stmt.executeQuery();
 
+            Map<UUID, User> organizers = new HashMap<>();
             while (rs.next()) {
-                UUID eventId = (UUID) rs.getObject("event_id");
-                String name = rs.getString("name");
-                LocalDateTime eventDate = rs.getTimestamp("event_date").toLocalDateTime();
-                String location = rs.getString("location");
-                EventType eventType = EventType.valueOf(rs.getString("event_type"));
-
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-                if (organizerOpt.isEmpty()) {
-                    continue;
-                }
-
-                Event event = new Event(eventId, name, eventDate, location, eventType, organizerOpt.get());
-                events.add(event);
+                events.add(mapEvent(rs, organizers));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -193,4 +213,59 @@ public class EventRepository implements IEventRepository<Event, UUID> {
 
         return events;
     }
+
+    /**
+     * Scans every event; {@link IndexedEventRepository} answers this from a maintained index.
+     */
+    @Override
+    public EventSearchResult search(EventSearchQuery query) {
+        EventSearchIndex index = new EventSearchIndex();
+        try (Stream<Event> events = streamAll()) {
+            events.forEach(index::put);
+        }
+        return index.search(query);
+    }
+
+    /**
+     * Maps the current row of a {@link #SELECT_WITH_ORGANIZER} query. Organizers are looked up in
+     * the given identity map so each one is materialized once per result set.
+     */
+    static Event mapEvent(ResultSet rs, Map<UUID, User> organizers) throws SQLException {
+        User organizer = mapOrganizer(rs, organizers);
+        return new Event(
+                rs.getObject("event_id", UUID.class),
+                rs.getString("event_name"),
+                rs.getTimestamp("event_date").toLocalDateTime(),
+                rs.getString("location"),
+                EventType.valueOf(rs.getString("event_type")),
+                organizer
+        );
+    }
+
+    static User mapOrganizer(ResultSet rs, Map<UUID, User> organizers) throws SQLException {
+        UUID organizerId = rs.getObject("organizer_id", UUID.class);
+        if (organizerId == null || rs.getString("organizer_username") == null) {
+            return null;
+        }
+        User organizer = organizers.get(organizerId);
+        if (organizer == null) {
+            organizer = new User(
+                    organizerId,
+                    rs.getString("organizer_username"),
+                    rs.getString("organizer_password"),
+                    rs.getString("organizer_role")
+            );
+            organizers.put(organizerId, organizer);
+        }
+        return organizer;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Event obj) throws SQLException {
+        stmt.setObject(1, obj.getEventId());
+        stmt.setString(2, obj.getName());
+        stmt.setTimestamp(3, Timestamp.valueOf(obj.getDate()));
+        stmt.setString(4, obj.getLocation());
+        stmt.setObject(5, obj.getOrganizer().getUserId());
+        stmt.setString(6, obj.getType().name());
+    }
 }
@@ -0,0 +1,530 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over event names and locations. Text is lowercased, stripped of
+ * accents and split into words; each word maps to the events containing it, stored as
+ * varint-encoded gaps between document numbers. Each document's date, month and type sit side
+ * by side in one primitive array, so filters and facet counts never touch the events themselves.
+ *
+ * <p>A query intersects the postings of its words, rarest first, so its cost follows the rarest
+ * word rather than the catalog size. Updates and removals retire the old document and append a
+ * new one; retired documents are compacted away once they outnumber the live ones.
+ */
+public class EventSearchIndex {
+    private static final int MIN_COMPACTION = 1024;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<UUID, Integer> docOf = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private Event[] events = new Event[1024];
+    // Two longs per document, read together for every hit: the date in epoch seconds, then
+    // month << 8 | type ordinal + 1, with 0 for a missing month or type
+    private long[] attributes = new long[2 * 1024];
+    private int docCount;
+    private int liveCount;
+    // Range of months seen, so month facets count into a small array
+    private int minMonth = Integer.MAX_VALUE;
+    private int maxMonth = Integer.MIN_VALUE;
+
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            retire(event.getEventId());
+            append(event);
+            compactIfMostlyRetired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<Event> events) {
+        lock.writeLock().lock();
+        try {
+            for (Event event : events) {
+                retire(event.getEventId());
+                append(event);
+            }
+            compactIfMostlyRetired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID eventId) {
+        lock.writeLock().lock();
+        try {
+            retire(eventId);
+            compactIfMostlyRetired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docOf.clear();
+            live.clear();
+            Arrays.fill(events, 0, docCount, null);
+            docCount = 0;
+            liveCount = 0;
+            minMonth = Integer.MAX_VALUE;
+            maxMonth = Integer.MIN_VALUE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public EventSearchResult search(EventSearchQuery query) {
+        List<String> terms = tokenize(query.text());
+        boolean[] typeFilter = null;
+        if (!query.types().isEmpty()) {
+            typeFilter = new boolean[EventType.values().length];
+            for (EventType type : query.types()) {
+                typeFilter[type.ordinal()] = true;
+            }
+        }
+        long from = query.from() == null ? Long.MIN_VALUE : epochSecond(query.from());
+        long to = query.to() == null ? Long.MAX_VALUE : epochSecond(query.to());
+
+        lock.readLock().lock();
+        try {
+            Collector collector = new Collector(query.limit(), typeFilter, from, to);
+            if (terms.isEmpty()) {
+                for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                    collector.offer(doc);
+                }
+                return collector.result();
+            }
+            int[] docs = matching(terms);
+            for (int doc : docs) {
+                if (live.get(doc)) {
+                    collector.offer(doc);
+                }
+            }
+            return collector.result();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase words of letters and digits, with accents removed, in order of
+     * first appearance.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    // Called with the write lock held
+    private void retire(UUID eventId) {
+        Integer doc = docOf.remove(eventId);
+        if (doc != null) {
+            live.clear(doc);
+            events[doc] = null;
+            liveCount--;
+        }
+    }
+
+    // Called with the write lock held and the event not in the index
+    private void append(Event event) {
+        int doc = docCount;
+        if (doc == events.length) {
+            int length = doc * 2;
+            events = Arrays.copyOf(events, length);
+            attributes = Arrays.copyOf(attributes, 2 * length);
+        }
+        List<String> tokens = tokenize(Objects.toString(event.getName(), "") + " " + Objects.toString(event.getLocation(), ""));
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, word -> new Postings()).add(doc);
+        }
+        LocalDateTime date = event.getDate();
+        events[doc] = event;
+        int month = 0;
+        if (date != null) {
+            month = date.getYear() * 12 + date.getMonthValue();
+            minMonth = Math.min(minMonth, month);
+            maxMonth = Math.max(maxMonth, month);
+        }
+        attributes[2 * doc] = date == null ? NO_DATE : epochSecond(date);
+        attributes[2 * doc + 1] = (long) month << 8 | (event.getType() == null ? 0 : event.getType().ordinal() + 1);
+        docOf.put(event.getEventId(), doc);
+        live.set(doc);
+        docCount++;
+        liveCount++;
+    }
+
+    // Re-indexing an event retires its old document too, so edits alone can trigger this. Waiting
+    // until retired documents outnumber live ones keeps the cost of compaction amortized per change.
+    private void compactIfMostlyRetired() {
+        int retired = docCount - liveCount;
+        if (retired > MIN_COMPACTION && retired > liveCount) {
+            compact();
+        }
+    }
+
+    // Renumbers the live documents from zero, dropping retired ones from every posting list
+    private void compact() {
+        List<Event> remaining = new ArrayList<>(liveCount);
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            remaining.add(events[doc]);
+        }
+        postings.clear();
+        docOf.clear();
+        live.clear();
+        Arrays.fill(events, 0, docCount, null);
+        docCount = 0;
+        liveCount = 0;
+        for (Event event : remaining) {
+            append(event);
+        }
+    }
+
+    /**
+     * Returns the ascending documents holding every term, the last one matched as a prefix.
+     * Whole-word postings are intersected rarest first; the prefix's postings are merged into a
+     * bit set, which also removes documents holding several words with that prefix.
+     */
+    private int[] matching(List<String> terms) {
+        int last = terms.size() - 1;
+        List<Postings> exact = new ArrayList<>(last);
+        for (int i = 0; i < last; i++) {
+            Postings list = postings.get(terms.get(i));
+            if (list == null) {
+                return new int[0];
+            }
+            exact.add(list);
+        }
+        Collection<Postings> prefixed = postings.subMap(terms.get(last), true, terms.get(last) + Character.MAX_VALUE, false)
+                .values();
+        if (prefixed.isEmpty()) {
+            return new int[0];
+        }
+        if (prefixed.size() == 1) {
+            exact.add(prefixed.iterator().next());
+            prefixed = List.of();
+        }
+        exact.sort(Comparator.comparingInt(list -> list.count));
+
+        int[] docs = null;
+        int size = 0;
+        for (Postings list : exact) {
+            if (docs == null) {
+                docs = list.decode();
+                size = docs.length;
+            } else {
+                size = list.retainAll(docs, size);
+            }
+            if (size == 0) {
+                return new int[0];
+            }
+        }
+        if (prefixed.isEmpty()) {
+            return size == docs.length ? docs : Arrays.copyOf(docs, size);
+        }
+        BitSet union = new BitSet(docCount);
+        for (Postings list : prefixed) {
+            list.addTo(union);
+        }
+        if (docs == null) {
+            return union.stream().toArray();
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (union.get(docs[i])) {
+                docs[kept++] = docs[i];
+            }
+        }
+        return Arrays.copyOf(docs, kept);
+    }
+
+    private static long epochSecond(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Applies the type and date filters to candidate documents, counts facets and keeps the
+     * earliest {@code limit} hits in a max-heap on (date, document).
+     */
+    private final class Collector {
+        private final int limit;
+        private final boolean[] typeFilter;
+        private final long from;
+        private final long to;
+        private final int[] typeCounts = new int[EventType.values().length];
+        private final int firstMonth = minMonth;
+        private final int[] monthCounts = new int[Math.max(maxMonth - minMonth + 1, 0)];
+        private final int[] heap;
+        private int heapSize;
+        private int totalHits;
+
+        private Collector(int limit, boolean[] typeFilter, long from, long to) {
+            this.limit = limit;
+            this.typeFilter = typeFilter;
+            this.from = from;
+            this.to = to;
+            this.heap = new int[Math.min(limit, Math.max(liveCount, 1))];
+        }
+
+        void offer(int doc) {
+            long date = attributes[2 * doc];
+            long packed = attributes[2 * doc + 1];
+            int type = (int) (packed & 0xFF) - 1;
+            int month = (int) (packed >>> 8);
+            boolean typeMatches = typeFilter == null || (type >= 0 && typeFilter[type]);
+            boolean dateMatches = date != NO_DATE ? date >= from && date <= to
+                    : from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+            if (dateMatches && type >= 0) {
+                typeCounts[type]++;
+            }
+            if (typeMatches && month != 0) {
+                monthCounts[month - firstMonth]++;
+            }
+            if (!typeMatches || !dateMatches) {
+                return;
+            }
+            totalHits++;
+            if (heapSize < heap.length) {
+                heap[heapSize] = doc;
+                siftUp(heapSize++);
+            } else if (heap.length > 0 && before(doc, heap[0])) {
+                heap[0] = doc;
+                siftDown(0);
+            }
+        }
+
+        EventSearchResult result() {
+            // Heapsort in place: popping the latest hit to the end leaves them in date order
+            int hits = heapSize;
+            while (heapSize > 1) {
+                swap(0, --heapSize);
+                siftDown(0);
+            }
+            List<Event> page = new ArrayList<>(hits);
+            for (int i = 0; i < hits; i++) {
+                page.add(events[heap[i]]);
+            }
+            Map<EventType, Integer> typeFacet = new EnumMap<>(EventType.class);
+            for (EventType type : EventType.values()) {
+                if (typeCounts[type.ordinal()] > 0) {
+                    typeFacet.put(type, typeCounts[type.ordinal()]);
+                }
+            }
+            SortedMap<YearMonth, Integer> monthFacet = new TreeMap<>();
+            for (int i = 0; i < monthCounts.length; i++) {
+                if (monthCounts[i] > 0) {
+                    int month = firstMonth + i - 1;
+                    monthFacet.put(YearMonth.of(month / 12, month % 12 + 1), monthCounts[i]);
+                }
+            }
+            return new EventSearchResult(page, totalHits, Collections.unmodifiableMap(typeFacet),
+                    Collections.unmodifiableSortedMap(monthFacet));
+        }
+
+        private boolean before(int a, int b) {
+            long dateA = attributes[2 * a];
+            long dateB = attributes[2 * b];
+            return dateA != dateB ? dateA < dateB : a < b;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(heap[parent], heap[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    return;
+                }
+                if (child + 1 < heapSize && before(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!before(heap[i], heap[child])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int doc = heap[i];
+            heap[i] = heap[j];
+            heap[j] = doc;
+        }
+    }
+
+    /**
+     * Ascending document numbers of one word, stored as varint-encoded gaps. Every
+     * {@value #SKIP_INTERVAL} entries a skip point records where the next block starts, so a
+     * short list intersected with a long one jumps over the blocks in between.
+     */
+    private static final class Postings {
+        private static final int SKIP_INTERVAL = 64;
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int lastDoc = -1;
+        // Document preceding each block and the block's first byte
+        private int[] skipDocs = new int[1];
+        private int[] skipOffsets = new int[1];
+
+        void add(int doc) {
+            if (count % SKIP_INTERVAL == 0) {
+                int block = count / SKIP_INTERVAL;
+                if (block == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, block * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+                }
+                skipDocs[block] = lastDoc;
+                skipOffsets[block] = length;
+            }
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int gap = doc - lastDoc;
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+            lastDoc = doc;
+            count++;
+        }
+
+        int[] decode() {
+            int[] docs = new int[count];
+            Cursor cursor = new Cursor();
+            for (int i = 0; i < count; i++) {
+                docs[i] = cursor.next();
+            }
+            return docs;
+        }
+
+        /**
+         * Keeps those of the first {@code size} ascending {@code docs} that are also in this list,
+         * moved to the front, and returns how many were kept.
+         */
+        int retainAll(int[] docs, int size) {
+            int blocks = (count + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+            int block = 0;
+            int kept = 0;
+            int doc = -1;
+            Cursor cursor = new Cursor();
+            for (int i = 0; i < size; i++) {
+                int target = docs[i];
+                if (doc < target) {
+                    while (block + 1 < blocks && skipDocs[block + 1] < target) {
+                        block++;
+                    }
+                    if (skipOffsets[block] > cursor.position) {
+                        cursor.position = skipOffsets[block];
+                        cursor.doc = skipDocs[block];
+                    }
+                    while (doc < target && cursor.hasNext()) {
+                        doc = cursor.next();
+                    }
+                    if (doc < target) {
+                        break;
+                    }
+                }
+                if (doc == target) {
+                    docs[kept++] = target;
+                }
+            }
+            return kept;
+        }
+
+        void addTo(BitSet docs) {
+            Cursor cursor = new Cursor();
+            while (cursor.hasNext()) {
+                docs.set(cursor.next());
+            }
+        }
+
+        private final class Cursor {
+            private int position;
+            private int doc = -1;
+
+            boolean hasNext() {
+                return position < length;
+            }
+
+            int next() {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += gap;
+                return doc;
+            }
+        }
+    }
+}
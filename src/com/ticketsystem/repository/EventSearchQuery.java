@@ -0,0 +1,29 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.EventType;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Full-text event search. Every word of {@code text} must appear in the event's name or
+ * location; the last word also matches as a prefix, for search-as-you-type. Null or empty
+ * {@code types}, {@code from} and {@code to} leave that filter off.
+ */
+public record EventSearchQuery(String text, Set<EventType> types, LocalDateTime from, LocalDateTime to, int limit) {
+
+    public EventSearchQuery {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        types = types == null || types.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(types));
+    }
+
+    public static EventSearchQuery text(String text, int limit) {
+        return new EventSearchQuery(text, null, null, null, limit);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.EventType;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The first {@code limit} matching events in date order, the total number of matches, and facet
+ * counts. Each facet is counted with every filter applied except its own, so the counts tell how
+ * many events picking that type or month would return.
+ */
+public record EventSearchResult(List<Event> events, int totalHits, Map<EventType, Integer> typeCounts,
+                                SortedMap<YearMonth, Integer> monthCounts) {
+}
@@ -0,0 +1,88 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory secondary index of events ordered by date. Range lookups walk a skip list, so a
+ * query costs O(log n + k) and readers never block writers.
+ */
+public class EventTimeIndex {
+    private final ConcurrentSkipListMap<EventCursor, Event> byDate = new ConcurrentSkipListMap<>();
+    private final Map<UUID, EventCursor> keys = new ConcurrentHashMap<>();
+
+    public void put(Event event) {
+        EventCursor key = EventCursor.after(event);
+        EventCursor previous = keys.put(event.getEventId(), key);
+        byDate.put(key, event);
+        if (previous != null && !previous.equals(key)) {
+            byDate.remove(previous);
+        }
+    }
+
+    public void putAll(Collection<Event> events) {
+        for (Event event : events) {
+            put(event);
+        }
+    }
+
+    public void remove(UUID eventId) {
+        EventCursor key = keys.remove(eventId);
+        if (key != null) {
+            byDate.remove(key);
+        }
+    }
+
+    public void clear() {
+        keys.clear();
+        byDate.clear();
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public List<Event> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return new ArrayList<>(range(startDate, endDate, null).values());
+    }
+
+    /**
+     * Returns at most {@code limit} events in the interval that come after the cursor, in date
+     * order. Pass {@code null} to start from the beginning of the interval.
+     */
+    public List<Event> findPage(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit) {
+        List<Event> page = new ArrayList<>(Math.min(limit, 256));
+        for (Event event : range(startDate, endDate, after).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(event);
+        }
+        return page;
+    }
+
+    private NavigableMap<EventCursor, Event> range(LocalDateTime startDate, LocalDateTime endDate, EventCursor after) {
+        EventCursor upper = EventCursor.highest(endDate);
+        EventCursor lower = EventCursor.lowest(startDate);
+        if (after != null && after.compareTo(lower) >= 0) {
+            if (after.compareTo(upper) >= 0) {
+                return Collections.emptyNavigableMap();
+            }
+            return byDate.subMap(after, false, upper, true);
+        }
+        if (lower.compareTo(upper) > 0) {
+            return Collections.emptyNavigableMap();
+        }
+        return byDate.subMap(lower, true, upper, true);
+    }
+}
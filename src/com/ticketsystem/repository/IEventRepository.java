@@ -6,5 +6,11 @@ import java.util.UUID;
 
 public interface IEventRepository<T, ID> extends IRepository<T , ID>{
     List<T> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate);
+    List<T> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit);
     List<T> findEventsByOrganizer(UUID organizerId);
+
+    /**
+     * Full-text search over event names and locations with type and date filters and facets.
+     */
+    EventSearchResult search(EventSearchQuery query);
 }
@@ -1,12 +1,23 @@
 package com.ticketsystem.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IRepository<T, ID> {
+    int DEFAULT_BATCH_SIZE = 500;
+
     void save(T obj);
+    BatchResult saveAll(Collection<T> objs, int chunkSize);
     Optional<T> findById(ID id);
     List<T> findAll();
+    Stream<T> streamAll();
+    List<T> findPage(ID afterId, int limit);
     void deleteById(ID id);
     void update(ID id, T newObj);
+
+    default BatchResult saveAll(Collection<T> objs) {
+        return saveAll(objs, DEFAULT_BATCH_SIZE);
+    }
 }
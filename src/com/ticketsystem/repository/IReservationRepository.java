@@ -2,7 +2,38 @@ package com.ticketsystem.repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface IReservationRepository<T, ID> extends IRepository<T, ID> {
     List<T> findAllByUser(UUID userId);
+    Stream<T> streamAllByUser(UUID userId);
+
+    /**
+     * Inserts the reservation and takes its tickets from the category in one transaction.
+     * Returns false, writing nothing, when the category has too few tickets left.
+     */
+    boolean reserve(T reservation);
+
+    /**
+     * Like {@link #reserve}, for several reservations in one transaction: either every one is
+     * inserted with its tickets taken, or none is and false is returned.
+     */
+    boolean reserveAll(List<T> reservations);
+
+    /**
+     * Writes a batch of journaled changes in one transaction. Must be idempotent, since entries
+     * are replayed after a crash when it is unknown whether their batch committed.
+     */
+    void applyJournal(List<JournalEntry> entries);
+
+    /**
+     * Passes the event, quantity and unit price of every confirmed reservation to the visitor,
+     * without loading the events, users and categories around them.
+     */
+    void forEachConfirmedSale(SaleVisitor visitor);
+
+    @FunctionalInterface
+    interface SaleVisitor {
+        void visit(UUID eventId, int quantity, long unitPriceCents);
+    }
 }
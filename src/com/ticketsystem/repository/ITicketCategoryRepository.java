@@ -5,4 +5,10 @@ import java.util.UUID;
 
 public interface ITicketCategoryRepository<T, ID> extends IRepository<T, ID>{
     List<T> findAllByEvent(UUID eventId);
+
+    /**
+     * Takes tickets from the category only if enough remain, in a single conditional update.
+     * Returns false, changing nothing, when they do not.
+     */
+    boolean tryReserve(UUID categoryId, int quantity);
 }
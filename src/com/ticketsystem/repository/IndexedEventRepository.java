@@ -0,0 +1,183 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Event repository decorator that answers time-interval queries from an {@link EventTimeIndex}
+ * and text searches from an {@link EventSearchIndex}. Both are built from the delegate on first
+ * use and kept current by the writes that pass through this repository. Events written by other
+ * instances are picked up when the indexes are rebuilt after a fixed TTL; queries keep using the
+ * old ones while a rebuild runs.
+ */
+public class IndexedEventRepository implements IEventRepository<Event, UUID> {
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final IEventRepository<Event, UUID> delegate;
+    private final long ttlNanos;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Null until first use and after refresh()
+    private volatile Indexes indexes;
+
+    public IndexedEventRepository(IEventRepository<Event, UUID> delegate) {
+        this(delegate, DEFAULT_TTL);
+    }
+
+    public IndexedEventRepository(IEventRepository<Event, UUID> delegate, Duration ttl) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public void save(Event obj) {
+        delegate.save(obj);
+        synchronized (this) {
+            Indexes current = indexes;
+            if (current != null) {
+                current.time.put(obj);
+                current.search.put(obj);
+            }
+        }
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Event> objs, int chunkSize) {
+        BatchResult result = delegate.saveAll(objs, chunkSize);
+        synchronized (this) {
+            Indexes current = indexes;
+            if (current != null) {
+                current.time.putAll(objs);
+                current.search.putAll(objs);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Event> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Event> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Event> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Event> findPage(UUID afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        delegate.deleteById(id);
+        synchronized (this) {
+            Indexes current = indexes;
+            if (current != null) {
+                current.time.remove(id);
+                current.search.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void update(UUID id, Event newObj) {
+        delegate.update(id, newObj);
+        synchronized (this) {
+            Indexes current = indexes;
+            if (current != null) {
+                current.time.remove(id);
+                current.search.remove(id);
+                delegate.findById(id).ifPresent(event -> {
+                    current.time.put(event);
+                    current.search.put(event);
+                });
+            }
+        }
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate) {
+        return indexes().time.findBetween(startDate, endDate);
+    }
+
+    @Override
+    public List<Event> findEventsByTimeInterval(LocalDateTime startDate, LocalDateTime endDate, EventCursor after, int limit) {
+        return indexes().time.findPage(startDate, endDate, after, limit);
+    }
+
+    @Override
+    public List<Event> findEventsByOrganizer(UUID organizerId) {
+        return delegate.findEventsByOrganizer(organizerId);
+    }
+
+    @Override
+    public EventSearchResult search(EventSearchQuery query) {
+        return indexes().search.search(query);
+    }
+
+    /**
+     * Drops the indexes so the next query rebuilds them at once, without waiting for the TTL.
+     */
+    public synchronized void refresh() {
+        indexes = null;
+    }
+
+    private Indexes indexes() {
+        Indexes current = indexes;
+        if (current == null) {
+            synchronized (this) {
+                current = indexes;
+                if (current == null) {
+                    current = build();
+                    indexes = current;
+                }
+            }
+            return current;
+        }
+        // One caller rebuilds an expired set; the others answer from it meanwhile
+        if (System.nanoTime() - current.expiresAt >= 0 && rebuilding.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    current = build();
+                    indexes = current;
+                }
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+        return current;
+    }
+
+    // Called with the lock held, so no write falls between the load and the swap
+    private Indexes build() {
+        List<Event> events = delegate.findAll();
+        Indexes built = new Indexes(System.nanoTime() + ttlNanos);
+        built.time.putAll(events);
+        built.search.putAll(events);
+        return built;
+    }
+
+    private static final class Indexes {
+        private final EventTimeIndex time = new EventTimeIndex();
+        private final EventSearchIndex search = new EventSearchIndex();
+        private final long expiresAt;
+
+        private Indexes(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
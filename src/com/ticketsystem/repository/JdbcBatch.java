@@ -0,0 +1,67 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs an insert statement over many rows with JDBC batching, committing once per chunk.
+ */
+final class JdbcBatch {
+
+    @FunctionalInterface
+    interface StatementBinder<T> {
+        void bind(PreparedStatement stmt, T obj) throws SQLException;
+    }
+
+    private JdbcBatch() {
+    }
+
+    /**
+     * Chunks that were committed before a failing chunk stay committed; the failing chunk is
+     * rolled back and the error is rethrown.
+     */
+    static <T> BatchResult execute(ConnectionPool connectionPool, String sql, Collection<T> objs, int chunkSize,
+                                   StatementBinder<T> binder) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<Long> chunkNanos = new ArrayList<>();
+        if (objs.isEmpty()) {
+            return new BatchResult(0, chunkNanos);
+        }
+
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                Iterator<T> iterator = objs.iterator();
+                while (iterator.hasNext()) {
+                    long start = System.nanoTime();
+                    int rows = 0;
+                    while (rows < chunkSize && iterator.hasNext()) {
+                        binder.bind(stmt, iterator.next());
+                        stmt.addBatch();
+                        rows++;
+                    }
+                    try {
+                        stmt.executeBatch();
+                        connection.commit();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                    chunkNanos.add(System.nanoTime() - start);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Batch insert failed after " + chunkNanos.size() + " committed chunks", e);
+        }
+        return new BatchResult(objs.size(), chunkNanos);
+    }
+}
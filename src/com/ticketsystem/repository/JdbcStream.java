@@ -0,0 +1,101 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams query results row by row through a server-side cursor. The stream holds a pooled
+ * connection until it is closed, so callers must use it in a try-with-resources block.
+ */
+final class JdbcStream {
+    static final int FETCH_SIZE = 500;
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private JdbcStream() {
+    }
+
+    static <T> Stream<T> query(ConnectionPool connectionPool, String sql, ParameterBinder binder, RowMapper<T> mapper) {
+        Connection connection = null;
+        PreparedStatement stmt = null;
+        try {
+            connection = connectionPool.getConnection();
+            // PostgreSQL only honours the fetch size inside a transaction
+            connection.setAutoCommit(false);
+            stmt = connection.prepareStatement(sql);
+            stmt.setFetchSize(FETCH_SIZE);
+            binder.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+
+            Connection ownedConnection = connection;
+            PreparedStatement ownedStmt = stmt;
+            return StreamSupport.stream(new RowSpliterator<>(rs, mapper), false)
+                    .onClose(() -> close(rs, ownedStmt, ownedConnection));
+        } catch (SQLException e) {
+            close(null, stmt, connection);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void close(ResultSet rs, PreparedStatement stmt, Connection connection) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+
+        private RowSpliterator(ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
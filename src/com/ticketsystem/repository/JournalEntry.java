@@ -0,0 +1,124 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Reservation;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * One change recorded in the {@link ReservationJournal}: a confirmed reservation or the
+ * cancellation of one. Entries carry everything needed to write the change to the database
+ * again after a crash.
+ */
+public final class JournalEntry {
+    static final int ENCODED_SIZE = 1 + 16 + 16 + 16 + 4 + 8 + 4 + 1 + 16;
+
+    public enum Type {
+        RESERVE,
+        CANCEL
+    }
+
+    private final Type type;
+    private final UUID reservationId;
+    private final UUID eventId;
+    private final UUID categoryId;
+    private final int quantity;
+    private final LocalDateTime reservationDate;
+    private final UUID userId;
+    // Live object for in-process sinks; null for entries read back from the journal file
+    private final Reservation reservation;
+
+    private JournalEntry(Type type, UUID reservationId, UUID eventId, UUID categoryId, int quantity,
+                         LocalDateTime reservationDate, UUID userId, Reservation reservation) {
+        this.type = type;
+        this.reservationId = reservationId;
+        this.eventId = eventId;
+        this.categoryId = categoryId;
+        this.quantity = quantity;
+        this.reservationDate = reservationDate;
+        this.userId = userId;
+        this.reservation = reservation;
+    }
+
+    public static JournalEntry reserve(Reservation reservation) {
+        return of(Type.RESERVE, reservation);
+    }
+
+    public static JournalEntry cancel(Reservation reservation) {
+        return of(Type.CANCEL, reservation);
+    }
+
+    private static JournalEntry of(Type type, Reservation reservation) {
+        return new JournalEntry(type, reservation.getReservationId(), reservation.getEvent().getEventId(),
+                reservation.getCategory().getCategoryId(), reservation.getQuantity(), reservation.getReservationDate(),
+                reservation.getUserId(), reservation);
+    }
+
+    void encode(ByteBuffer buffer) {
+        buffer.put((byte) type.ordinal());
+        putId(buffer, reservationId);
+        putId(buffer, eventId);
+        putId(buffer, categoryId);
+        buffer.putInt(quantity);
+        buffer.putLong(reservationDate.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(reservationDate.getNano());
+        buffer.put((byte) (userId == null ? 0 : 1));
+        putId(buffer, userId == null ? new UUID(0, 0) : userId);
+    }
+
+    static JournalEntry decode(ByteBuffer buffer) {
+        Type type = Type.values()[buffer.get()];
+        UUID reservationId = getId(buffer);
+        UUID eventId = getId(buffer);
+        UUID categoryId = getId(buffer);
+        int quantity = buffer.getInt();
+        LocalDateTime reservationDate = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        boolean hasUser = buffer.get() == 1;
+        UUID userId = getId(buffer);
+        return new JournalEntry(type, reservationId, eventId, categoryId, quantity, reservationDate,
+                hasUser ? userId : null, null);
+    }
+
+    private static void putId(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getId(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public UUID getCategoryId() {
+        return categoryId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getReservationDate() {
+        return reservationDate;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+}
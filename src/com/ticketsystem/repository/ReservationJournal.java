@@ -0,0 +1,437 @@
+package com.ticketsystem.repository;
+
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of reservation changes. A change is acknowledged as soon as it
+ * is written to the mapped file; a background writer hands everything appended since its last
+ * flush to {@link IReservationRepository#applyJournal} as one group-committed batch. Entries the
+ * database has not confirmed are replayed when the journal is opened again after a crash.
+ *
+ * <p>A batch the database keeps rejecting, e.g. for a constraint violation, is retried one
+ * entry at a time, and an entry that still fails is written to a dead-letter file next to the
+ * journal so the entries behind it can proceed, and handed to the dead-letter listener so memory
+ * can be put back to what the database holds. Connection problems are retried indefinitely.
+ */
+public class ReservationJournal implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1_000;
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long APPEND_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final String DEAD_LETTER_GAUGE = "journal_dead_letters_total";
+
+    // Header: magic, epoch, checkpoint (offset of the first entry not yet in the database)
+    private static final int MAGIC = 0x524A4E31;
+    private static final int EPOCH_OFFSET = 4;
+    private static final int CHECKPOINT_OFFSET = 8;
+    private static final int HEADER_SIZE = 64;
+    // Record: length, epoch, payload, CRC32 of the payload
+    private static final int RECORD_SIZE = 4 + 4 + JournalEntry.ENCODED_SIZE + 4;
+
+    private final IReservationRepository<Reservation, UUID> repository;
+    private final Path deadLetterFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int maxBatchSize;
+    private final boolean forceOnAppend;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition entriesAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private int epoch;
+    private int writePosition;
+    private boolean closed;
+
+    private final Thread writer;
+    private volatile long flushedCount;
+    private volatile long batchCount;
+    private volatile long deadLetterCount;
+    private volatile Consumer<List<JournalEntry>> flushListener = batch -> { };
+    private volatile Consumer<JournalEntry> deadLetterListener = entry -> { };
+    private final LongSupplier deadLetterGauge = this::getDeadLetterCount;
+
+    public ReservationJournal(Path file, IReservationRepository<Reservation, UUID> repository) {
+        this(file, repository, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, false);
+    }
+
+    /**
+     * @param forceOnAppend sync every append to the storage device; without it an acknowledged
+     *                      entry survives a process crash but not a power loss before the next flush
+     */
+    public ReservationJournal(Path file, IReservationRepository<Reservation, UUID> repository,
+                              int capacity, int maxBatchSize, boolean forceOnAppend) {
+        if (capacity < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal capacity too small");
+        }
+        this.repository = repository;
+        this.deadLetterFile = file.resolveSibling(file.getFileName() + ".dead");
+        this.maxBatchSize = maxBatchSize;
+        this.forceOnAppend = forceOnAppend;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean existing = channel.size() >= HEADER_SIZE;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+            if (existing && buffer.getInt(0) == MAGIC) {
+                recover();
+            } else {
+                buffer.putInt(0, MAGIC);
+                reset();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open reservation journal " + file, e);
+        }
+
+        this.writer = new Thread(this::writeLoop, "reservation-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        MetricsRegistry.global().gauge(DEAD_LETTER_GAUGE, deadLetterGauge);
+    }
+
+    /**
+     * Records the change and returns once it is in the journal; the database write happens later.
+     */
+    public void append(JournalEntry entry) {
+        appendAll(List.of(entry));
+    }
+
+    /**
+     * Records the changes as one unit: after a crash either all of them are replayed or none.
+     * Waits while the journal is full, and fails with an {@link IllegalStateException} when no
+     * space frees up in time or the thread is interrupted.
+     */
+    public void appendAll(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int size = entries.size() * RECORD_SIZE;
+        if (HEADER_SIZE + size > buffer.capacity()) {
+            throw new IllegalArgumentException("Too many changes for the journal: " + entries.size());
+        }
+        lock.lock();
+        try {
+            long remainingNanos = APPEND_TIMEOUT_NANOS;
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Reservation journal is closed");
+                }
+                if (writePosition + size <= buffer.capacity()) {
+                    break;
+                }
+                if (remainingNanos <= 0) {
+                    throw new IllegalStateException("Reservation journal is full; the database is not keeping up");
+                }
+                // Full: wait for the writer to drain everything, after which the log starts over
+                entriesAvailable.signal();
+                try {
+                    remainingNanos = spaceAvailable.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal space", e);
+                }
+            }
+            int start = writePosition;
+            for (int i = 1; i < entries.size(); i++) {
+                writeRecord(entries.get(i), start + i * RECORD_SIZE);
+                buffer.putInt(start + i * RECORD_SIZE + 4, epoch);
+            }
+            // Recovery stops at the first record of an older epoch, so stamping the first record
+            // last makes the whole group visible at once
+            writeRecord(entries.get(0), start);
+            buffer.putInt(start + 4, epoch);
+            if (forceOnAppend) {
+                buffer.force(start, size);
+            }
+            writePosition = start + size;
+            for (int i = 0; i < entries.size(); i++) {
+                pending.addLast(new Pending(entries.get(i), start + (i + 1) * RECORD_SIZE));
+            }
+            entriesAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called on the writer thread with every batch once the database has committed it.
+     */
+    public void setFlushListener(Consumer<List<JournalEntry>> flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    /**
+     * Called on the writer thread with every entry moved to the dead-letter file; the database
+     * never applied it.
+     */
+    public void setDeadLetterListener(Consumer<JournalEntry> deadLetterListener) {
+        this.deadLetterListener = deadLetterListener;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushedCount() {
+        return flushedCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Entries the database rejected for good, written to the {@code .dead} file next to the journal.
+     */
+    public long getDeadLetterCount() {
+        return deadLetterCount;
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount;
+        return batches == 0 ? 0 : (double) flushedCount / batches;
+    }
+
+    /**
+     * Stops accepting entries and waits for the writer to flush what is already journaled.
+     * Anything it cannot flush in time stays in the file and is replayed on the next start.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            entriesAvailable.signalAll();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        MetricsRegistry.global().removeGauge(DEAD_LETTER_GAUGE, deadLetterGauge);
+    }
+
+    // Everything but the epoch, which marks the record as written
+    private void writeRecord(JournalEntry entry, int start) {
+        ByteBuffer payload = buffer.slice(start + 8, JournalEntry.ENCODED_SIZE);
+        entry.encode(payload);
+        crc.reset();
+        crc.update(payload.flip());
+        buffer.putInt(start + 8 + JournalEntry.ENCODED_SIZE, (int) crc.getValue());
+        buffer.putInt(start, JournalEntry.ENCODED_SIZE);
+    }
+
+    private void recover() {
+        epoch = buffer.getInt(EPOCH_OFFSET);
+        int position = (int) buffer.getLong(CHECKPOINT_OFFSET);
+        List<JournalEntry> entries = new ArrayList<>();
+        while (position + RECORD_SIZE <= buffer.capacity()
+                && buffer.getInt(position) == JournalEntry.ENCODED_SIZE
+                && buffer.getInt(position + 4) == epoch) {
+            ByteBuffer payload = buffer.slice(position + 8, JournalEntry.ENCODED_SIZE);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 8 + JournalEntry.ENCODED_SIZE)) {
+                // Torn write from a crash mid-append; it was never acknowledged
+                break;
+            }
+            entries.add(JournalEntry.decode(payload));
+            position += RECORD_SIZE;
+        }
+        if (!entries.isEmpty()) {
+            System.err.println("Replaying " + entries.size() + " journaled reservation changes");
+            repository.applyJournal(entries);
+            buffer.force();
+        }
+        reset();
+    }
+
+    // Starts the log over; the new epoch makes records left over from the previous round invalid.
+    // Not forced: if the header is lost, replaying already applied entries is harmless.
+    private void reset() {
+        epoch++;
+        writePosition = HEADER_SIZE;
+        buffer.putLong(CHECKPOINT_OFFSET, HEADER_SIZE);
+        buffer.putInt(EPOCH_OFFSET, epoch);
+    }
+
+    private void writeLoop() {
+        int failures = 0;
+        // Entries of a batch that kept failing, still to be retried one at a time
+        int isolating = 0;
+        while (true) {
+            List<JournalEntry> batch = new ArrayList<>();
+            int end;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    entriesAvailable.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                int limit = isolating > 0 ? 1 : maxBatchSize;
+                end = HEADER_SIZE;
+                for (Pending next : pending) {
+                    if (batch.size() == limit) {
+                        break;
+                    }
+                    batch.add(next.entry);
+                    end = next.end;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            boolean applied;
+            try {
+                repository.applyJournal(batch);
+                applied = true;
+                failures = 0;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                if (isTransient(e) || ++failures < MAX_ATTEMPTS) {
+                    if (!sleepBeforeRetry()) {
+                        return;
+                    }
+                    continue;
+                }
+                failures = 0;
+                if (batch.size() > 1) {
+                    isolating = batch.size();
+                    continue;
+                }
+                if (!deadLetter(batch.get(0), e)) {
+                    if (!sleepBeforeRetry()) {
+                        return;
+                    }
+                    continue;
+                }
+                applied = false;
+            }
+            if (isolating > 0) {
+                isolating--;
+            }
+
+            lock.lock();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    pending.removeFirst();
+                }
+                if (applied) {
+                    flushedCount += batch.size();
+                    batchCount++;
+                }
+                if (pending.isEmpty()) {
+                    reset();
+                    spaceAvailable.signalAll();
+                } else {
+                    buffer.putLong(CHECKPOINT_OFFSET, end);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (applied) {
+                flushListener.accept(batch);
+            } else {
+                deadLetterListener.accept(batch.get(0));
+            }
+        }
+    }
+
+    // Lost connections and timeouts pass; data and constraint errors (SQLSTATE 22, 23) and
+    // failures outside JDBC would fail the same way again
+    private static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                return state == null || !(state.startsWith("22") || state.startsWith("23"));
+            }
+        }
+        return false;
+    }
+
+    private boolean deadLetter(JournalEntry entry, RuntimeException failure) {
+        String line = String.join(",", entry.getType().name(), String.valueOf(entry.getReservationId()),
+                String.valueOf(entry.getEventId()), String.valueOf(entry.getCategoryId()),
+                String.valueOf(entry.getQuantity()), String.valueOf(entry.getReservationDate()),
+                String.valueOf(entry.getUserId()), String.valueOf(failure).replace('\n', ' ')) + "\n";
+        try {
+            Files.writeString(deadLetterFile, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            // Kept in the journal and retried rather than dropped without a trace
+            e.printStackTrace();
+            return false;
+        }
+        deadLetterCount++;
+        System.err.println("Reservation journal entry moved to " + deadLetterFile + ": " + line.strip());
+        return true;
+    }
+
+    private boolean sleepBeforeRetry() {
+        lock.lock();
+        try {
+            // Give up on shutdown; the entries stay in the file for the next start
+            if (closed) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Pending {
+        private final JournalEntry entry;
+        private final int end;
+
+        private Pending(JournalEntry entry, int end) {
+            this.entry = entry;
+            this.end = end;
+        }
+    }
+}
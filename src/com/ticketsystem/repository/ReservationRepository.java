@@ -1,36 +1,57 @@
 package com.ticketsystem.repository;
 
 import com.ticketsystem.model.*;
+import com.ticketsystem.util.ConnectionPool;
+import com.ticketsystem.util.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class ReservationRepository implements IReservationRepository<Reservation, UUID>{
-    private final Connection connection;
-    private final UserRepository userRepository;
+    private static final String INSERT_SQL = "INSERT INTO reservations (reservation_id, event_id, category_id, quantity, reservation_date, status, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT (reservation_id) DO NOTHING";
+    private static final String CANCEL_SQL = "UPDATE reservations SET status = 'CANCELLED' " +
+            "WHERE reservation_id = ? AND status <> 'CANCELLED'";
+    private static final String ADJUST_AVAILABILITY_SQL = "UPDATE ticket_categories SET available_tickets = available_tickets + ? " +
+            "WHERE category_id = ?";
+    private static final String SELECT_WITH_DETAILS = """
+            SELECT r.reservation_id, r.quantity, r.reservation_date, r.status, r.user_id,
+                   e.event_id, e.name AS event_name, e.event_date, e.location, e.event_type, e.organizer_id,
+                   u.username AS organizer_username, u.password AS organizer_password, u.role AS organizer_role,
+                   tc.category_id, tc.name AS category_name, tc.price, tc.available_tickets
+            FROM reservations r
+            JOIN events e ON r.event_id = e.event_id
+            JOIN ticket_categories tc ON r.category_id = tc.category_id
+            LEFT JOIN users u ON e.organizer_id = u.user_id""";
+    private static final String SELECT_CONFIRMED_SALES = """
+            SELECT r.event_id, r.quantity, tc.price
+            FROM reservations r
+            JOIN ticket_categories tc ON r.category_id = tc.category_id
+            WHERE r.status = 'CONFIRMED'""";
 
-    public ReservationRepository(Connection connection, UserRepository userRepository) {
-        this.connection = connection;
-        this.userRepository = userRepository;
+    private final ConnectionPool connectionPool;
+
+    public ReservationRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public void save(Reservation obj) {
-        String sql = "INSERT INTO reservations (reservation_id, event_id, category_id, quantity, reservation_date, status, user_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try {
+        try (Connection connection = connectionPool.getConnection()) {
             connection.setAutoCommit(false);
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setObject(1, obj.getReservationId());
-                stmt.setObject(2, obj.getEvent().getEventId());
-                stmt.setObject(3, obj.getCategory().getCategoryId());
-                stmt.setInt(4, obj.getQuantity());
-                stmt.setTimestamp(5, Timestamp.valueOf(obj.getReservationDate()));
-                stmt.setString(6, obj.getStatus());
-                stmt.setObject(7, obj.getUserId());
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+                bindInsert(stmt, obj);
                 stmt.executeUpdate();
                 connection.commit();
             }
@@ -39,51 +60,67 @@ public class ReservationRepository implements IReservationRepository<Reservation
         }
     }
 
+    @Override
+    public boolean reserve(Reservation obj) {
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            if (!TicketCategoryRepository.tryReserve(connection, obj.getCategory().getCategoryId(), obj.getQuantity())) {
+                connection.rollback();
+                return false;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+                bindInsert(stmt, obj);
+                stmt.executeUpdate();
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save reservation with ID: " + obj.getReservationId(), e);
+        }
+    }
+
+    @Override
+    public boolean reserveAll(List<Reservation> reservations) {
+        // One update per category, however many lines share it
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
+        for (Reservation reservation : reservations) {
+            quantities.merge(reservation.getCategory().getCategoryId(), reservation.getQuantity(), Integer::sum);
+        }
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            if (!TicketCategoryRepository.tryReserveAll(connection, quantities)) {
+                connection.rollback();
+                return false;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+                for (Reservation reservation : reservations) {
+                    bindInsert(stmt, reservation);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save an order of " + reservations.size() + " reservations", e);
+        }
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Reservation> objs, int chunkSize) {
+        return JdbcBatch.execute(connectionPool, INSERT_SQL, objs, chunkSize, this::bindInsert);
+    }
+
     @Override
     public Optional<Reservation> findById(UUID s) {
-        String sql = """
-        SELECT r.reservation_id, r.quantity, r.reservation_date, r.status, r.user_id,
-               e.event_id, e.name AS event_name, e.event_date AS event_date, e.location, e.event_type, e.organizer_id,
-               tc.category_id, tc.name AS category_name, tc.price
-        FROM reservations r
-        JOIN events e ON r.event_id = e.event_id
-        JOIN ticket_categories tc ON r.category_id = tc.category_id
-        WHERE r.reservation_id = ?
-        """;
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = SELECT_WITH_DETAILS + " WHERE r.reservation_id = ?";
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                UUID organizerId = rs.getObject("organizer_id", UUID.class);
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-
-                Event event = new Event(
-                        rs.getObject("event_id", UUID.class),
-                        rs.getString("event_name"),
-                        rs.getTimestamp("event_date").toLocalDateTime(),
-                        rs.getString("location"),
-                        EventType.valueOf(rs.getString("event_type")),
-                        organizerOpt.orElse(null)
-                );
-
-                TicketCategory category = new TicketCategory(
-                        rs.getObject("category_id", UUID.class),
-                        rs.getString("category_name"),
-                        rs.getDouble("price"),
-                        rs.getInt("available_tickets")
-                );
-
-                Reservation reservation = new Reservation(
-                        rs.getObject("reservation_id", UUID.class),
-                        event,
-                        category,
-                        rs.getInt("quantity"),
-                        rs.getTimestamp("reservation_date").toLocalDateTime(),
-                        rs.getString("status"),
-                        rs.getObject("user_id", UUID.class)
-                );
-                return Optional.of(reservation);
+                return Optional.of(mapReservation(rs, new HashMap<>()));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -93,13 +130,54 @@ public class ReservationRepository implements IReservationRepository<Reservation
 
     @Override
     public List<Reservation> findAll() {
-        return List.of();
+        List<Reservation> reservations = new ArrayList<>();
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SELECT_WITH_DETAILS)) {
+            ResultSet rs = stmt.executeQuery();
+
+            Map<UUID, User> organizers = new HashMap<>();
+            while (rs.next()) {
+                reservations.add(mapReservation(rs, organizers));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return reservations;
+    }
+
+    @Override
+    public Stream<Reservation> streamAll() {
+        Map<UUID, User> organizers = new HashMap<>();
+        return JdbcStream.query(connectionPool, SELECT_WITH_DETAILS, stmt -> { }, rs -> mapReservation(rs, organizers));
+    }
+
+    @Override
+    public List<Reservation> findPage(UUID afterId, int limit) {
+        List<Reservation> reservations = new ArrayList<>();
+        String sql = SELECT_WITH_DETAILS + (afterId != null ? " WHERE r.reservation_id > ?" : "") + " ORDER BY r.reservation_id LIMIT ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (afterId != null) {
+                stmt.setObject(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            Map<UUID, User> organizers = new HashMap<>();
+            while (rs.next()) {
+                reservations.add(mapReservation(rs, organizers));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return reservations;
     }
 
     @Override
     public void deleteById(UUID s) {
         String sql = "DELETE FROM reservations WHERE reservation_id = ?";
-        try {
+        try (Connection connection = connectionPool.getConnection()) {
             connection.setAutoCommit(false);
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
                 stmt.setObject(1, s);
@@ -122,7 +200,8 @@ public class ReservationRepository implements IReservationRepository<Reservation
                 "user_id = ? " +
                 "WHERE reservation_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, newObj.getEvent().getEventId());
             stmt.setObject(2, newObj.getCategory().getCategoryId());
             stmt.setInt(3, newObj.getQuantity());
@@ -147,54 +226,144 @@ public class ReservationRepository implements IReservationRepository<Reservation
     @Override
     public List<Reservation> findAllByUser(UUID userId) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = """
-                SELECT r.reservation_id, r.quantity, r.reservation_date, r.status, r.user_id,
-               e.event_id, e.name AS event_name, e.event_date AS event_date, e.location, e.event_type, e.organizer_id,
-               tc.category_id, tc.name AS category_name, tc.price
-        FROM reservations r
-        JOIN events e ON r.event_id = e.event_id
-        JOIN ticket_categories tc ON r.category_id = tc.category_id
-        WHERE r.user_id = ?""";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = SELECT_WITH_DETAILS + " WHERE r.user_id = ?";
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, userId);
             ResultSet rs = stmt.executeQuery();
 
+            Map<UUID, User> organizers = new HashMap<>();
             while (rs.next()) {
-                UUID organizerId = rs.getObject("organizer_id", UUID.class);
-                Optional<User> organizerOpt = userRepository.findById(organizerId);
-
-                Event event = new Event(
-                        rs.getObject("event_id", UUID.class),
-                        rs.getString("event_name"),
-                        rs.getTimestamp("event_date").toLocalDateTime(),
-                        rs.getString("location"),
-                        EventType.valueOf(rs.getString("event_type")),
-                        organizerOpt.orElse(null)
-                );
-
-
-                TicketCategory category = new TicketCategory(
-                        rs.getObject("category_id", UUID.class),
-                        rs.getString("category_name"),
-                        rs.getDouble("price")
-                );
-
-                Reservation reservation = new Reservation(
-                        rs.getObject("reservation_id", UUID.class),
-                        event,
-                        category,
-                        rs.getInt("quantity"),
-                        rs.getTimestamp("reservation_date").toLocalDateTime(),
-                        rs.getString("status"),
-                        userId
-                );
-
-                reservations.add(reservation);
+                reservations.add(mapReservation(rs, organizers));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
         return reservations;
     }
+
+    @Override
+    public Stream<Reservation> streamAllByUser(UUID userId) {
+        Map<UUID, User> organizers = new HashMap<>();
+        return JdbcStream.query(connectionPool, SELECT_WITH_DETAILS + " WHERE r.user_id = ?",
+                stmt -> stmt.setObject(1, userId), rs -> mapReservation(rs, organizers));
+    }
+
+    /**
+     * Inserts and cancels reservations, then moves each touched category's availability by the
+     * net change, all in one transaction. Availability only moves for rows that actually changed,
+     * so replaying entries that already committed has no effect.
+     */
+    @Override
+    public void applyJournal(List<JournalEntry> entries) {
+        List<JournalEntry> reserves = new ArrayList<>();
+        List<JournalEntry> cancels = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            (entry.getType() == JournalEntry.Type.RESERVE ? reserves : cancels).add(entry);
+        }
+
+        try (Connection connection = connectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            Map<UUID, Integer> deltas = new LinkedHashMap<>();
+            if (!reserves.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_IF_ABSENT_SQL)) {
+                    for (JournalEntry entry : reserves) {
+                        stmt.setObject(1, entry.getReservationId());
+                        stmt.setObject(2, entry.getEventId());
+                        stmt.setObject(3, entry.getCategoryId());
+                        stmt.setInt(4, entry.getQuantity());
+                        stmt.setTimestamp(5, Timestamp.valueOf(entry.getReservationDate()));
+                        stmt.setString(6, "CONFIRMED");
+                        stmt.setObject(7, entry.getUserId());
+                        stmt.addBatch();
+                    }
+                    collectDeltas(stmt.executeBatch(), reserves, -1, deltas);
+                }
+            }
+            if (!cancels.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(CANCEL_SQL)) {
+                    for (JournalEntry entry : cancels) {
+                        stmt.setObject(1, entry.getReservationId());
+                        stmt.addBatch();
+                    }
+                    collectDeltas(stmt.executeBatch(), cancels, 1, deltas);
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(ADJUST_AVAILABILITY_SQL)) {
+                for (Map.Entry<UUID, Integer> delta : deltas.entrySet()) {
+                    if (delta.getValue() != 0) {
+                        stmt.setInt(1, delta.getValue());
+                        stmt.setObject(2, delta.getKey());
+                        stmt.addBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to apply " + entries.size() + " journaled reservation changes", e);
+        }
+    }
+
+    @Override
+    public void forEachConfirmedSale(SaleVisitor visitor) {
+        try (Connection connection = connectionPool.getConnection()) {
+            // PostgreSQL only honours the fetch size inside a transaction
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_CONFIRMED_SALES)) {
+                stmt.setFetchSize(JdbcStream.FETCH_SIZE);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    visitor.visit(rs.getObject(1, UUID.class), rs.getInt(2), Money.fromDecimal(rs.getBigDecimal(3)));
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Only rows the statement changed count; SUCCESS_NO_INFO would break idempotent replay
+    private static void collectDeltas(int[] counts, List<JournalEntry> entries, int sign, Map<UUID, Integer> deltas) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                JournalEntry entry = entries.get(i);
+                deltas.merge(entry.getCategoryId(), sign * entry.getQuantity(), Integer::sum);
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, Reservation obj) throws SQLException {
+        stmt.setObject(1, obj.getReservationId());
+        stmt.setObject(2, obj.getEvent().getEventId());
+        stmt.setObject(3, obj.getCategory().getCategoryId());
+        stmt.setInt(4, obj.getQuantity());
+        stmt.setTimestamp(5, Timestamp.valueOf(obj.getReservationDate()));
+        stmt.setString(6, obj.getStatus());
+        stmt.setObject(7, obj.getUserId());
+    }
+
+    private Reservation mapReservation(ResultSet rs, Map<UUID, User> organizers) throws SQLException {
+        Event event = EventRepository.mapEvent(rs, organizers);
+
+        TicketCategory category = new TicketCategory(
+                rs.getObject("category_id", UUID.class),
+                event.getEventId(),
+                rs.getString("category_name"),
+                Money.fromDecimal(rs.getBigDecimal("price")),
+                rs.getInt("available_tickets")
+        );
+
+        return new Reservation(
+                rs.getObject("reservation_id", UUID.class),
+                event,
+                category,
+                rs.getInt("quantity"),
+                rs.getTimestamp("reservation_date").toLocalDateTime(),
+                rs.getString("status"),
+                rs.getObject("user_id", UUID.class)
+        );
+    }
 }
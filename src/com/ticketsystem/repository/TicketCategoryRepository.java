@@ -1,53 +1,59 @@
 package com.ticketsystem.repository;
 
 import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.util.ConnectionPool;
+import com.ticketsystem.util.Money;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class TicketCategoryRepository implements ITicketCategoryRepository<TicketCategory, UUID> {
-    private final Connection connection;
+    private static final String INSERT_SQL = "INSERT INTO ticket_categories (category_id, event_id, name, price, available_tickets) VALUES (?, ?, ?, ?, ?)";
+    private static final String RESERVE_SQL = "UPDATE ticket_categories SET available_tickets = available_tickets - ? " +
+            "WHERE category_id = ? AND available_tickets >= ?";
 
-    public TicketCategoryRepository(Connection connection) {
-        this.connection = connection;
+    private final ConnectionPool connectionPool;
+
+    public TicketCategoryRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public void save(TicketCategory obj) {
-        String sql = "INSERT INTO ticket_categories (category_id, event_id, name, price, available_tickets) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setObject(1, obj.getCategoryId());
-            stmt.setObject(2, obj.getEvent().getEventId());
-            stmt.setString(3, obj.getName());
-            stmt.setDouble(4, obj.getPrice());
-            stmt.setInt(5, obj.getAvailableTickets());
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            bindInsert(stmt, obj);
 
             stmt.executeUpdate();
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to save ticket category: " + obj.getCategoryId(), e);
         }
     }
 
+    @Override
+    public BatchResult saveAll(Collection<TicketCategory> objs, int chunkSize) {
+        return JdbcBatch.execute(connectionPool, INSERT_SQL, objs, chunkSize, this::bindInsert);
+    }
+
     @Override
     public Optional<TicketCategory> findById(UUID s) {
         String sql = "SELECT * FROM ticket_categories WHERE category_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    TicketCategory ticketCategory = new TicketCategory(
-                            rs.getObject("category_id", UUID.class),
-                            rs.getString("name"),
-                            rs.getDouble("price"),
-                            rs.getInt("available_tickets")
-                    );
-                    return Optional.of(ticketCategory);
+                    return Optional.of(mapCategory(rs));
                 }
             }
         } catch (SQLException e) {
@@ -61,17 +67,12 @@ public class TicketCategoryRepository implements ITicketCategoryRepository<Ticke
         List<TicketCategory> categories = new ArrayList<>();
         String sql = "SELECT * FROM ticket_categories";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                TicketCategory category = new TicketCategory(
-                        rs.getObject("category_id", UUID.class),
-                        rs.getString("name"),
-                        rs.getDouble("price"),
-                        rs.getInt("available_tickets")
-                );
-                categories.add(category);
+                categories.add(mapCategory(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -79,10 +80,40 @@ public class TicketCategoryRepository implements ITicketCategoryRepository<Ticke
         return categories;
     }
 
+    @Override
+    public Stream<TicketCategory> streamAll() {
+        return JdbcStream.query(connectionPool, "SELECT * FROM ticket_categories", stmt -> { }, this::mapCategory);
+    }
+
+    @Override
+    public List<TicketCategory> findPage(UUID afterId, int limit) {
+        List<TicketCategory> categories = new ArrayList<>();
+        String sql = afterId == null
+                ? "SELECT * FROM ticket_categories ORDER BY category_id LIMIT ?"
+                : "SELECT * FROM ticket_categories WHERE category_id > ? ORDER BY category_id LIMIT ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (afterId != null) {
+                stmt.setObject(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    categories.add(mapCategory(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return categories;
+    }
+
     @Override
     public void deleteById(UUID s) {
         String sql = "DELETE FROM ticket_categories WHERE category_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -93,9 +124,10 @@ public class TicketCategoryRepository implements ITicketCategoryRepository<Ticke
     @Override
     public void update(UUID s, TicketCategory newObj) {
         String sql = "UPDATE ticket_categories SET name = ?, price = ?, available_tickets = ? WHERE category_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newObj.getName());
-            stmt.setDouble(2, newObj.getPrice());
+            stmt.setBigDecimal(2, Money.toDecimal(newObj.getPriceCents()));
             stmt.setInt(3, newObj.getAvailableTickets());
             stmt.setObject(4, s);
             stmt.executeUpdate();
@@ -109,18 +141,13 @@ public class TicketCategoryRepository implements ITicketCategoryRepository<Ticke
         List<TicketCategory> categories = new ArrayList<>();
         String sql = "SELECT * FROM ticket_categories WHERE event_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, eventId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                TicketCategory category = new TicketCategory(
-                        rs.getObject("category_id", UUID.class),
-                        rs.getString("name"),
-                        rs.getDouble("price"),
-                        rs.getInt("available_tickets")
-                );
-                categories.add(category);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    categories.add(mapCategory(rs));
+                }
             }
 
         } catch (SQLException e) {
@@ -129,4 +156,63 @@ public class TicketCategoryRepository implements ITicketCategoryRepository<Ticke
 
         return categories;
     }
+
+    @Override
+    public boolean tryReserve(UUID categoryId, int quantity) {
+        try (Connection connection = connectionPool.getConnection()) {
+            return tryReserve(connection, categoryId, quantity);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to reserve tickets in category: " + categoryId, e);
+        }
+    }
+
+    // The row lock taken by the update serializes concurrent buyers inside the database
+    static boolean tryReserve(Connection connection, UUID categoryId, int quantity) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(RESERVE_SQL)) {
+            stmt.setInt(1, quantity);
+            stmt.setObject(2, categoryId);
+            stmt.setInt(3, quantity);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Takes the tickets of every category or, returning false, of none; the caller rolls back.
+     * Rows are locked in key order, so two orders over the same categories cannot deadlock.
+     */
+    static boolean tryReserveAll(Connection connection, SortedMap<UUID, Integer> quantities) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(RESERVE_SQL)) {
+            for (Map.Entry<UUID, Integer> quantity : quantities.entrySet()) {
+                stmt.setInt(1, quantity.getValue());
+                stmt.setObject(2, quantity.getKey());
+                stmt.setInt(3, quantity.getValue());
+                stmt.addBatch();
+            }
+            for (int count : stmt.executeBatch()) {
+                if (count != 1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private TicketCategory mapCategory(ResultSet rs) throws SQLException {
+        return new TicketCategory(
+                rs.getObject("category_id", UUID.class),
+                rs.getObject("event_id", UUID.class),
+                rs.getString("name"),
+                Money.fromDecimal(rs.getBigDecimal("price")),
+                rs.getInt("available_tickets")
+        );
+    }
+
+    private void bindInsert(PreparedStatement stmt, TicketCategory obj) throws SQLException {
+        stmt.setObject(1, obj.getCategoryId());
+        // Categories loaded from storage carry only the event id
+        stmt.setObject(2, obj.getEventId());
+        stmt.setString(3, obj.getName());
+        stmt.setBigDecimal(4, Money.toDecimal(obj.getPriceCents()));
+        stmt.setInt(5, obj.getAvailableTickets());
+    }
 }
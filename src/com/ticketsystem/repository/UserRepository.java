@@ -1,38 +1,46 @@
 package com.ticketsystem.repository;
 
 import com.ticketsystem.model.User;
+import com.ticketsystem.util.ConnectionPool;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class UserRepository implements IUserRepository<User, UUID> {
-    private final Connection connection;
+    private static final String INSERT_SQL = "INSERT INTO users (user_id, username, password, role) VALUES (?,?,?,?)";
 
-    public UserRepository(Connection connection) {
-        this.connection = connection;
+    private final ConnectionPool connectionPool;
+
+    public UserRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public void save(User obj) {
-        String sql = "INSERT INTO users (user_id, username, password, role) VALUES (?,?,?,?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setObject(1, obj.getUserId());
-            stmt.setString(2, obj.getUsername());
-            stmt.setString(3, obj.getPassword());
-            stmt.setString(4, obj.getRole());
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            bindInsert(stmt, obj);
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public BatchResult saveAll(Collection<User> objs, int chunkSize) {
+        return JdbcBatch.execute(connectionPool, INSERT_SQL, objs, chunkSize, this::bindInsert);
+    }
+
     @Override
     public Optional<User> findById(UUID s) {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -50,12 +58,11 @@ public class UserRepository implements IUserRepository<User, UUID> {
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users";
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement()) {
             ResultSet rs = stmt.executeQuery(sql);
             while (rs.next()) {
-                UUID userId = rs.getObject("user_id", UUID.class);
-                User user = new User(userId, rs.getString("username"), rs.getString("password"), rs.getString("role"));
-                users.add(user);
+                users.add(mapUser(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -64,10 +71,39 @@ public class UserRepository implements IUserRepository<User, UUID> {
         return users;
     }
 
+    @Override
+    public Stream<User> streamAll() {
+        return JdbcStream.query(connectionPool, "SELECT * FROM users", stmt -> { }, this::mapUser);
+    }
+
+    @Override
+    public List<User> findPage(UUID afterId, int limit) {
+        List<User> users = new ArrayList<>();
+        String sql = afterId == null
+                ? "SELECT * FROM users ORDER BY user_id LIMIT ?"
+                : "SELECT * FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (afterId != null) {
+                stmt.setObject(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapUser(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return users;
+    }
+
     @Override
     public void deleteById(UUID s) {
         String sql = "DELETE FROM users WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setObject(1, s);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -78,7 +114,8 @@ public class UserRepository implements IUserRepository<User, UUID> {
     @Override
     public void update(UUID s, User newObj) {
         String sql = "UPDATE users SET username = ?, password = ? WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newObj.getUsername());
             stmt.setString(2, newObj.getPassword()); // or newUser.getPassword()
             stmt.setObject(3, s);
@@ -91,7 +128,8 @@ public class UserRepository implements IUserRepository<User, UUID> {
     @Override
     public Optional<User> findByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -104,4 +142,15 @@ public class UserRepository implements IUserRepository<User, UUID> {
         }
         return Optional.empty();
     }
+
+    private void bindInsert(PreparedStatement stmt, User obj) throws SQLException {
+        stmt.setObject(1, obj.getUserId());
+        stmt.setString(2, obj.getUsername());
+        stmt.setString(3, obj.getPassword());
+        stmt.setString(4, obj.getRole());
+    }
+
+    private User mapUser(ResultSet rs) throws SQLException {
+        return new User(rs.getObject("user_id", UUID.class), rs.getString("username"), rs.getString("password"), rs.getString("role"));
+    }
 }
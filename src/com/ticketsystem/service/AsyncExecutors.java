@@ -0,0 +1,22 @@
+package com.ticketsystem.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Default executors for the services' asynchronous methods.
+ */
+final class AsyncExecutors {
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * Starts a virtual thread per task, so an asynchronous call blocked on JDBC holds no
+     * platform thread. Nothing to shut down: idle, it owns no threads.
+     */
+    static Executor virtualThreads(String name) {
+        ThreadFactory factory = Thread.ofVirtual().name(name + "-", 0).factory();
+        return runnable -> factory.newThread(runnable).start();
+    }
+}
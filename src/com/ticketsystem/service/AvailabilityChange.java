@@ -0,0 +1,9 @@
+package com.ticketsystem.service;
+
+import java.util.UUID;
+
+/**
+ * Remaining tickets of a category as of the feed tick that published it.
+ */
+public record AvailabilityChange(UUID categoryId, int availableTickets) {
+}
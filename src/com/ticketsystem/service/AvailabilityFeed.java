@@ -0,0 +1,189 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.TicketCategory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change feed of the seat inventory. A category whose remaining tickets move is flagged once
+ * until the next tick; each tick publishes the current count of every flagged category, so a
+ * category sold hundreds of times within a tick costs subscribers a single update. Updates carry
+ * the count itself rather than a difference, so they can be merged and replayed freely.
+ *
+ * <p>Nothing is flagged while there are no subscribers, and the tick thread only starts with
+ * the first subscription.
+ */
+public class AvailabilityFeed implements AutoCloseable {
+    static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+
+    private final AvailabilityTable table;
+    private final long tickMillis;
+    private final Queue<Integer> changed = new ConcurrentLinkedQueue<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService ticker;
+    private boolean closed;
+
+    AvailabilityFeed(AvailabilityTable table, Duration tick) {
+        this.table = table;
+        this.tickMillis = tick.toMillis();
+    }
+
+    /**
+     * Called by the inventory after the slot's remaining tickets changed.
+     */
+    void changed(int slot) {
+        if (!subscriptions.isEmpty() && table.markChanged(slot)) {
+            changed.add(slot);
+        }
+    }
+
+    /**
+     * Subscribes to the categories of the event, including ones added later, or to every
+     * category when {@code eventId} is null. Changes made after this call are delivered, so a
+     * snapshot read afterwards misses none.
+     */
+    synchronized Subscription subscribe(UUID eventId) {
+        if (closed) {
+            throw new IllegalStateException("Availability feed is closed");
+        }
+        Subscription subscription = new Subscription(eventId);
+        subscriptions.add(subscription);
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "availability-feed");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+        return subscription;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private void tick() {
+        try {
+            List<Update> updates = new ArrayList<>();
+            Integer slot;
+            while ((slot = changed.poll()) != null) {
+                // Cleared before reading, so a change racing with this tick is flagged again
+                table.clearChanged(slot);
+                TicketCategory category = table.category(slot);
+                updates.add(new Update(category.getEventId(),
+                        new AvailabilityChange(category.getCategoryId(), table.available(slot))));
+            }
+            if (!updates.isEmpty()) {
+                for (Subscription subscription : subscriptions) {
+                    subscription.offer(updates);
+                }
+            }
+        } catch (RuntimeException e) {
+            // A failed tick must not cancel the schedule
+            e.printStackTrace();
+        }
+    }
+
+    private record Update(UUID eventId, AvailabilityChange change) {
+    }
+
+    /**
+     * One subscriber's stream of changes. Changes the subscriber has not collected yet are
+     * merged per category, so a slow subscriber gets fewer, fresher updates instead of a backlog.
+     */
+    public final class Subscription implements AutoCloseable {
+        // Event whose categories this subscription covers; null for all
+        private final UUID eventId;
+        // A lock rather than synchronized, so virtual threads waiting in poll do not pin their carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changesArrived = lock.newCondition();
+        private final Map<UUID, AvailabilityChange> pending = new LinkedHashMap<>();
+        private boolean closed;
+
+        private Subscription(UUID eventId) {
+            this.eventId = eventId;
+        }
+
+        /**
+         * Waits up to the timeout for changes and returns them, oldest category first; empty
+         * when none arrived in time or the subscription is closed.
+         */
+        public List<AvailabilityChange> poll(Duration timeout) throws InterruptedException {
+            long remainingNanos = timeout.toNanos();
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed && remainingNanos > 0) {
+                    remainingNanos = changesArrived.awaitNanos(remainingNanos);
+                }
+                List<AvailabilityChange> changes = new ArrayList<>(pending.values());
+                pending.clear();
+                return changes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isClosed() {
+            lock.lock();
+            try {
+                return closed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            lock.lock();
+            try {
+                closed = true;
+                changesArrived.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void offer(List<Update> updates) {
+            lock.lock();
+            try {
+                boolean added = false;
+                for (Update update : updates) {
+                    if (eventId == null || eventId.equals(update.eventId())) {
+                        // Removed first so the category moves to the back, behind older changes
+                        pending.remove(update.change().categoryId());
+                        pending.put(update.change().categoryId(), update.change());
+                        added = true;
+                    }
+                }
+                if (added) {
+                    changesArrived.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
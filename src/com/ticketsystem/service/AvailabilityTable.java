@@ -0,0 +1,238 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.TicketCategory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Columnar store behind {@link SeatInventory}. Every category gets a slot; its id is kept as two
+ * longs, its remaining and held tickets as ints updated by CAS, and its price in cents as a long,
+ * each in its own array. Slots are found through an open-addressing index over the id columns,
+ * so lookups and scans over an event's categories touch only primitive arrays.
+ *
+ * <p>Slots are never removed. Reads are lock-free; adding slots takes a lock.
+ */
+final class AvailabilityTable {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int INITIAL_INDEX_SIZE = 1 << 10;
+
+    // Fixed-size pages, so growing copies page references and never the counters being CASed
+    private volatile Page[] pages = new Page[0];
+    private volatile int size;
+    // Open addressing over the id columns; holds slot + 1, 0 marks an empty bucket
+    private volatile AtomicIntegerArray index = new AtomicIntegerArray(INITIAL_INDEX_SIZE);
+    private final Map<UUID, int[]> eventSlots = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    /**
+     * Returns the slot of the category, or -1 when it has not been added.
+     */
+    int find(UUID categoryId) {
+        return find(index, categoryId.getMostSignificantBits(), categoryId.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the slot of the category, adding whatever the loader returns when it is missing;
+     * -1 when the loader returns null.
+     */
+    int findOrLoad(UUID categoryId, Function<UUID, TicketCategory> loader) {
+        int slot = find(categoryId);
+        if (slot >= 0) {
+            return slot;
+        }
+        synchronized (writeLock) {
+            // The index may have been replaced between the lock-free probe and here
+            slot = find(categoryId);
+            if (slot >= 0) {
+                return slot;
+            }
+            TicketCategory category = loader.apply(categoryId);
+            return category == null ? -1 : add(category);
+        }
+    }
+
+    /**
+     * Returns the slots of the event's categories, loading them all the first time.
+     */
+    int[] slotsOf(UUID eventId, Function<UUID, List<TicketCategory>> loader) {
+        int[] slots = eventSlots.get(eventId);
+        if (slots != null) {
+            return slots;
+        }
+        return eventSlots.computeIfAbsent(eventId, id -> {
+            List<TicketCategory> categories = loader.apply(id);
+            int[] loaded = new int[categories.size()];
+            for (int i = 0; i < loaded.length; i++) {
+                TicketCategory category = categories.get(i);
+                loaded[i] = findOrLoad(category.getCategoryId(), categoryId -> category);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Adds a category created after its event's slots were loaded to that event's slots. Nothing
+     * to do when they were not loaded yet; the first load reads the new category with the rest.
+     */
+    void addToEvent(UUID eventId, TicketCategory category) {
+        int slot = findOrLoad(category.getCategoryId(), categoryId -> category);
+        eventSlots.computeIfPresent(eventId, (id, slots) -> {
+            for (int existing : slots) {
+                if (existing == slot) {
+                    return slots;
+                }
+            }
+            int[] extended = Arrays.copyOf(slots, slots.length + 1);
+            extended[slots.length] = slot;
+            return extended;
+        });
+    }
+
+    boolean tryTake(int slot, int quantity) {
+        AtomicIntegerArray available = page(slot).available;
+        int offset = slot & (PAGE_SIZE - 1);
+        while (true) {
+            int current = available.get(offset);
+            if (current < quantity) {
+                return false;
+            }
+            if (available.compareAndSet(offset, current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    void addAvailable(int slot, int delta) {
+        page(slot).available.addAndGet(slot & (PAGE_SIZE - 1), delta);
+    }
+
+    void addHeld(int slot, int delta) {
+        page(slot).held.addAndGet(slot & (PAGE_SIZE - 1), delta);
+    }
+
+    int available(int slot) {
+        return page(slot).available.get(slot & (PAGE_SIZE - 1));
+    }
+
+    int held(int slot) {
+        return page(slot).held.get(slot & (PAGE_SIZE - 1));
+    }
+
+    long priceCents(int slot) {
+        return page(slot).priceCents[slot & (PAGE_SIZE - 1)];
+    }
+
+    /**
+     * Flags the slot as changed since the last {@link #clearChanged}; true when it was not yet.
+     */
+    boolean markChanged(int slot) {
+        AtomicIntegerArray changed = page(slot).changed;
+        int offset = slot & (PAGE_SIZE - 1);
+        // Plain read first: a hot slot is already flagged, and a failing CAS would still contend
+        return changed.get(offset) == 0 && changed.compareAndSet(offset, 0, 1);
+    }
+
+    void clearChanged(int slot) {
+        page(slot).changed.set(slot & (PAGE_SIZE - 1), 0);
+    }
+
+    TicketCategory category(int slot) {
+        return page(slot).categories[slot & (PAGE_SIZE - 1)];
+    }
+
+    // Called with writeLock held and the category known to be absent
+    private int add(TicketCategory category) {
+        int slot = size;
+        Page[] current = pages;
+        if (slot >>> PAGE_BITS == current.length) {
+            Page[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = new Page();
+            pages = grown;
+        }
+        Page page = pages[slot >>> PAGE_BITS];
+        int offset = slot & (PAGE_SIZE - 1);
+        long msb = category.getCategoryId().getMostSignificantBits();
+        long lsb = category.getCategoryId().getLeastSignificantBits();
+        page.msb[offset] = msb;
+        page.lsb[offset] = lsb;
+        page.priceCents[offset] = category.getPriceCents();
+        page.categories[offset] = category;
+        page.available.set(offset, category.getAvailableTickets());
+        size = slot + 1;
+
+        AtomicIntegerArray table = index;
+        if ((slot + 1) * 2 > table.length()) {
+            table = rebuildIndex(table.length() * 2, slot);
+            // Volatile write publishes the columns written above to lock-free readers
+            index = table;
+        } else {
+            insert(table, msb, lsb, slot);
+        }
+        return slot;
+    }
+
+    private AtomicIntegerArray rebuildIndex(int length, int lastSlot) {
+        AtomicIntegerArray table = new AtomicIntegerArray(length);
+        for (int slot = 0; slot <= lastSlot; slot++) {
+            Page page = page(slot);
+            int offset = slot & (PAGE_SIZE - 1);
+            insert(table, page.msb[offset], page.lsb[offset], slot);
+        }
+        return table;
+    }
+
+    private static void insert(AtomicIntegerArray table, long msb, long lsb, int slot) {
+        int mask = table.length() - 1;
+        int bucket = hash(msb, lsb) & mask;
+        while (table.get(bucket) != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table.set(bucket, slot + 1);
+    }
+
+    private int find(AtomicIntegerArray table, long msb, long lsb) {
+        int mask = table.length() - 1;
+        int bucket = hash(msb, lsb) & mask;
+        while (true) {
+            int entry = table.get(bucket);
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            Page page = page(slot);
+            int offset = slot & (PAGE_SIZE - 1);
+            if (page.msb[offset] == msb && page.lsb[offset] == lsb) {
+                return slot;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private Page page(int slot) {
+        return pages[slot >>> PAGE_BITS];
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Page {
+        private final long[] msb = new long[PAGE_SIZE];
+        private final long[] lsb = new long[PAGE_SIZE];
+        private final long[] priceCents = new long[PAGE_SIZE];
+        private final AtomicIntegerArray available = new AtomicIntegerArray(PAGE_SIZE);
+        private final AtomicIntegerArray held = new AtomicIntegerArray(PAGE_SIZE);
+        // Set while a change to the slot's availability waits for the next feed tick
+        private final AtomicIntegerArray changed = new AtomicIntegerArray(PAGE_SIZE);
+        // Kept so reservations can point at the category; scans never need to touch it
+        private final TicketCategory[] categories = new TicketCategory[PAGE_SIZE];
+    }
+}
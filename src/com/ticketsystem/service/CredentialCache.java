@@ -0,0 +1,96 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.User;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of users by username, so repeated logins skip the database. It holds only what the
+ * users table holds, the user with its stored hash, and every login still runs the full PBKDF2
+ * check against that hash: nothing derived from a plaintext password is kept in memory. Cached
+ * users are never changed; a new hash is published as a new user through {@link #replace}.
+ */
+class CredentialCache {
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    // Bounds how long a password changed on another instance keeps working here
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Credential> entries;
+
+    CredentialCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    CredentialCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Credential> eldest) {
+                return size() > CredentialCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached credential, or null when there is none or it has expired.
+     */
+    Credential get(String username) {
+        synchronized (entries) {
+            Credential credential = entries.get(username);
+            if (credential != null && System.nanoTime() - credential.loadedAt > ttlNanos) {
+                entries.remove(username);
+                return null;
+            }
+            return credential;
+        }
+    }
+
+    Credential put(User user) {
+        Credential credential = new Credential(user, System.nanoTime());
+        synchronized (entries) {
+            entries.put(user.getUsername(), credential);
+        }
+        return credential;
+    }
+
+    /**
+     * Swaps in the user saved with a new hash, unless the entry changed since {@code current} was
+     * read, e.g. because the password was updated meanwhile.
+     */
+    void replace(Credential current, User user) {
+        synchronized (entries) {
+            if (entries.get(user.getUsername()) == current) {
+                entries.put(user.getUsername(), new Credential(user, current.loadedAt));
+            }
+        }
+    }
+
+    void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+        }
+    }
+
+    static final class Credential {
+        private final User user;
+        private final long loadedAt;
+
+        private Credential(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+
+        User getUser() {
+            return user;
+        }
+
+        String getStoredHash() {
+            return user.getPassword();
+        }
+    }
+}
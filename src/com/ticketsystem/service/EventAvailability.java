@@ -0,0 +1,11 @@
+package com.ticketsystem.service;
+
+/**
+ * Remaining tickets of an event summed over its categories, and the price of its cheapest
+ * category that is not sold out, or -1 when all are.
+ */
+public record EventAvailability(int availableTickets, long lowestPriceCents) {
+    public boolean isSoldOut() {
+        return availableTickets == 0;
+    }
+}
@@ -2,52 +2,181 @@ package com.ticketsystem.service;
 
 import com.ticketsystem.model.Event;
 import com.ticketsystem.model.TicketCategory;
-import com.ticketsystem.repository.EventRepository;
+import com.ticketsystem.repository.EventCursor;
+import com.ticketsystem.repository.EventSearchQuery;
+import com.ticketsystem.repository.EventSearchResult;
+import com.ticketsystem.repository.IEventRepository;
+import com.ticketsystem.util.MethodStats;
+import com.ticketsystem.util.MetricsRegistry;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * Service class to handle event-related operations.
+ * Service class to handle event-related operations. The {@code ...Async} methods run their
+ * synchronous counterpart on the async executor, a virtual thread per call unless configured.
  */
 public class EventService {
-    private final EventRepository eventRepository;
+    private static final MethodStats ADD_EVENT = MetricsRegistry.global().stats("EventService.addEvent");
+    private static final MethodStats SEARCH_EVENTS_BY_TIME_INTERVAL_2 =
+            MetricsRegistry.global().stats("EventService.searchEventsByTimeInterval/2");
+    private static final MethodStats SEARCH_EVENTS_BY_TIME_INTERVAL_4 =
+            MetricsRegistry.global().stats("EventService.searchEventsByTimeInterval/4");
+    private static final MethodStats SEARCH_EVENTS = MetricsRegistry.global().stats("EventService.searchEvents");
+    private static final MethodStats GET_EVENT_BY_ID = MetricsRegistry.global().stats("EventService.getEventById");
+    private static final MethodStats GET_EVENTS_BY_ORGANIZER =
+            MetricsRegistry.global().stats("EventService.getEventsByOrganizer");
+    private static final MethodStats GET_AVAILABLE_TICKETS_FOR_EVENT =
+            MetricsRegistry.global().stats("EventService.getAvailableTicketsForEvent");
+    private static final MethodStats REMOVE_EVENT = MetricsRegistry.global().stats("EventService.removeEvent");
+    private static final MethodStats GET_ALL_EVENTS = MetricsRegistry.global().stats("EventService.getAllEvents");
 
-    public EventService(EventRepository eventRepository) {
+    private final IEventRepository<Event, UUID> eventRepository;
+    private final Executor asyncExecutor;
+
+    public EventService(IEventRepository<Event, UUID> eventRepository) {
+        this(eventRepository, AsyncExecutors.virtualThreads("event-service"));
+    }
+
+    public EventService(IEventRepository<Event, UUID> eventRepository, Executor asyncExecutor) {
         this.eventRepository = eventRepository;
+        this.asyncExecutor = asyncExecutor;
     }
 
     public void addEvent(Event event) {
-        eventRepository.save(event);
+        long startNanos = System.nanoTime();
+        try {
+            eventRepository.save(event);
+        } catch (RuntimeException e) {
+            ADD_EVENT.recordError();
+            throw e;
+        } finally {
+            ADD_EVENT.record(startNanos);
+        }
     }
 
     public List<Event> searchEventsByTimeInterval(LocalDateTime start, LocalDateTime end) {
-        return eventRepository.findEventsByTimeInterval(start, end);
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.findEventsByTimeInterval(start, end);
+        } catch (RuntimeException e) {
+            SEARCH_EVENTS_BY_TIME_INTERVAL_2.recordError();
+            throw e;
+        } finally {
+            SEARCH_EVENTS_BY_TIME_INTERVAL_2.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<List<Event>> searchEventsByTimeIntervalAsync(LocalDateTime start, LocalDateTime end) {
+        return CompletableFuture.supplyAsync(() -> searchEventsByTimeInterval(start, end), asyncExecutor);
+    }
+
+    public List<Event> searchEventsByTimeInterval(LocalDateTime start, LocalDateTime end, EventCursor after, int limit) {
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.findEventsByTimeInterval(start, end, after, limit);
+        } catch (RuntimeException e) {
+            SEARCH_EVENTS_BY_TIME_INTERVAL_4.recordError();
+            throw e;
+        } finally {
+            SEARCH_EVENTS_BY_TIME_INTERVAL_4.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<List<Event>> searchEventsByTimeIntervalAsync(LocalDateTime start, LocalDateTime end,
+                                                                        EventCursor after, int limit) {
+        return CompletableFuture.supplyAsync(() -> searchEventsByTimeInterval(start, end, after, limit), asyncExecutor);
+    }
+
+    public EventSearchResult searchEvents(EventSearchQuery query) {
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.search(query);
+        } catch (RuntimeException e) {
+            SEARCH_EVENTS.recordError();
+            throw e;
+        } finally {
+            SEARCH_EVENTS.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<EventSearchResult> searchEventsAsync(EventSearchQuery query) {
+        return CompletableFuture.supplyAsync(() -> searchEvents(query), asyncExecutor);
     }
 
     public Event getEventById(UUID eventId) {
-        return eventRepository.findById(eventId).orElse(null);
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.findById(eventId).orElse(null);
+        } catch (RuntimeException e) {
+            GET_EVENT_BY_ID.recordError();
+            throw e;
+        } finally {
+            GET_EVENT_BY_ID.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<Event> getEventByIdAsync(UUID eventId) {
+        return CompletableFuture.supplyAsync(() -> getEventById(eventId), asyncExecutor);
     }
 
     public List<Event> getEventsByOrganizer(UUID organizerId) {
-        return eventRepository.findEventsByOrganizer(organizerId);
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.findEventsByOrganizer(organizerId);
+        } catch (RuntimeException e) {
+            GET_EVENTS_BY_ORGANIZER.recordError();
+            throw e;
+        } finally {
+            GET_EVENTS_BY_ORGANIZER.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<List<Event>> getEventsByOrganizerAsync(UUID organizerId) {
+        return CompletableFuture.supplyAsync(() -> getEventsByOrganizer(organizerId), asyncExecutor);
     }
 
     public List<TicketCategory> getAvailableTicketsForEvent(UUID eventId) {
-        Event event = getEventById(eventId);
-        if (event == null) {
-            return new ArrayList<>();
+        long startNanos = System.nanoTime();
+        try {
+            Event event = getEventById(eventId);
+            if (event == null) {
+                return new ArrayList<>();
+            }
+            return event.getAvailableTickets();
+        } catch (RuntimeException e) {
+            GET_AVAILABLE_TICKETS_FOR_EVENT.recordError();
+            throw e;
+        } finally {
+            GET_AVAILABLE_TICKETS_FOR_EVENT.record(startNanos);
         }
-        return event.getAvailableTickets();
     }
 
     public void removeEvent(UUID eventId) {
-        eventRepository.deleteById(eventId);
+        long startNanos = System.nanoTime();
+        try {
+            eventRepository.deleteById(eventId);
+        } catch (RuntimeException e) {
+            REMOVE_EVENT.recordError();
+            throw e;
+        } finally {
+            REMOVE_EVENT.record(startNanos);
+        }
     }
 
     public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+        long startNanos = System.nanoTime();
+        try {
+            return eventRepository.findAll();
+        } catch (RuntimeException e) {
+            GET_ALL_EVENTS.recordError();
+            throw e;
+        } finally {
+            GET_ALL_EVENTS.record(startNanos);
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.util.ServerSecret;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Outcomes of requests that carry an idempotency key, kept for a while so a client that timed
+ * out and retries gets the result of its first attempt. Concurrent attempts with the same key
+ * share one computation. Every entry lives equally long, so they expire in insertion order and
+ * are dropped from the head of a queue as new keys arrive, without a reaper thread.
+ *
+ * <p>Keys are scoped to the user, and requests without one cannot use a key. Reservation ids are
+ * an HMAC of user and key under the {@link ServerSecret}, so they cannot be worked out from a
+ * guessed key.
+ */
+final class IdempotencyKeys<T> {
+    static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    static final int DEFAULT_MAX_ENTRIES = 200_000;
+    static final int MAX_KEY_LENGTH = 255;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final SecretKeySpec secret;
+    private final Map<Key, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Entry<T>> expiryOrder = new ConcurrentLinkedDeque<>();
+    private final LongAdder replays = new LongAdder();
+
+    IdempotencyKeys() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES, ServerSecret.get());
+    }
+
+    IdempotencyKeys(Duration ttl, int maxEntries, byte[] secret) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.secret = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * Runs the computation for the first attempt with this key and returns its result to every
+     * later or concurrent one. The computation gets an id derived from the user and key, the
+     * same on every node and after a restart; it must look up what an earlier attempt with that
+     * id left behind, since entries expire. A failed attempt is forgotten, so the next one runs
+     * again; reusing a key for a different request is refused.
+     */
+    T execute(UUID userId, String idempotencyKey, Object request, Function<UUID, T> computation) {
+        if (userId == null) {
+            throw new IllegalArgumentException("Idempotency keys need a logged-in user");
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(userId, idempotencyKey);
+        expire();
+        while (true) {
+            Entry<T> entry = new Entry<>(key, request, System.nanoTime() + ttlNanos);
+            Entry<T> earlier = entries.putIfAbsent(key, entry);
+            if (earlier == null) {
+                expiryOrder.add(entry);
+                return compute(entry, computation);
+            }
+            if (earlier.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key, earlier);
+                continue;
+            }
+            if (!earlier.request.equals(request)) {
+                throw new IllegalArgumentException("Idempotency key was already used for a different request");
+            }
+            replays.increment();
+            try {
+                return earlier.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    long getReplayCount() {
+        return replays.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    UUID idFor(UUID userId, String idempotencyKey) {
+        byte[] digest;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            digest = mac.doFinal((userId + "/" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        // Marked as a version 8 (custom) UUID
+        digest[6] = (byte) ((digest[6] & 0x0f) | 0x80);
+        digest[8] = (byte) ((digest[8] & 0x3f) | 0x80);
+        ByteBuffer bits = ByteBuffer.wrap(digest);
+        return new UUID(bits.getLong(), bits.getLong());
+    }
+
+    private T compute(Entry<T> entry, Function<UUID, T> computation) {
+        try {
+            T result = computation.apply(idFor(entry.key.userId(), entry.key.idempotencyKey()));
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(entry.key, entry);
+            // Added moments ago, so searching from the tail finds it quickly
+            expiryOrder.removeLastOccurrence(entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Past the size bound the oldest entries go early; the computation's lookup means nothing is lost
+    private void expire() {
+        long now = System.nanoTime();
+        Entry<T> oldest;
+        while ((oldest = expiryOrder.peek()) != null
+                && (oldest.expiresAt - now <= 0 || entries.size() > maxEntries)) {
+            if (expiryOrder.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    private record Key(UUID userId, String idempotencyKey) {
+    }
+
+    private static final class Entry<T> {
+        private final Key key;
+        private final Object request;
+        private final long expiresAt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Entry(Key key, Object request, long expiresAt) {
+            this.key = key;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
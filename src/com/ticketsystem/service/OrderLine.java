@@ -0,0 +1,9 @@
+package com.ticketsystem.service;
+
+import java.util.UUID;
+
+/**
+ * One line of a group order: the number of tickets wanted from a category.
+ */
+public record OrderLine(UUID categoryId, int quantity) {
+}
@@ -0,0 +1,160 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.repository.JournalEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reservations this node has journaled whose latest state may not have reached the database
+ * yet. Lookups check here before the repository, and a cancel switches a reservation from
+ * confirmed to cancelled here under a per-reservation lock, so its seats go back exactly once.
+ * They are also indexed by user, so a history loaded from the repository can be completed.
+ */
+class PendingReservations {
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<UUID, Tracked> tracked = new ConcurrentHashMap<>();
+    // May briefly name reservations no longer tracked; lookups skip those
+    private final Map<UUID, Set<UUID>> byUser = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    PendingReservations() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    void reserved(Reservation reservation) {
+        track(reservation, false);
+    }
+
+    // For an append that failed, so the entry will never be flushed
+    void discard(UUID reservationId) {
+        untrack(reservationId, tracked.remove(reservationId));
+    }
+
+    Optional<Reservation> find(UUID reservationId) {
+        Tracked current = tracked.get(reservationId);
+        return current == null ? Optional.empty() : Optional.of(current.reservation());
+    }
+
+    /**
+     * The user's tracked reservations, oldest first.
+     */
+    List<Reservation> findByUser(UUID userId) {
+        Set<UUID> ids = byUser.get(userId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<Reservation> reservations = new ArrayList<>(ids.size());
+        for (UUID reservationId : ids) {
+            Tracked current = tracked.get(reservationId);
+            if (current != null) {
+                reservations.add(current.reservation());
+            }
+        }
+        reservations.sort(Comparator.comparing(Reservation::getReservationDate));
+        return reservations;
+    }
+
+    /**
+     * Cancels the reservation unless it already is: takes it from here or from {@code loader},
+     * then runs {@code onCancel} and marks it cancelled while holding its lock. Returns the
+     * reservation when this call cancelled it.
+     */
+    Optional<Reservation> cancel(UUID reservationId, Function<UUID, Optional<Reservation>> loader, Consumer<Reservation> onCancel) {
+        ReentrantLock lock = locks[Math.floorMod(reservationId.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            // Flushed entries leave the map only after their transaction commits, so the
+            // repository is current whenever the reservation is not found here
+            Tracked current = tracked.get(reservationId);
+            Reservation reservation = current != null ? current.reservation() : loader.apply(reservationId).orElse(null);
+            if (reservation == null || (current != null && current.cancelled())
+                    || "CANCELLED".equals(reservation.getStatus())) {
+                return Optional.empty();
+            }
+            onCancel.accept(reservation);
+            reservation.cancelReservation();
+            track(reservation, true);
+            return Optional.of(reservation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets a reservation whose change the journal writer gave up on, running {@code onDrop}
+     * with it under its lock, when that change is still its latest state. Returns the reservation
+     * when it was dropped. A reserve cancelled since stays until its cancel is flushed.
+     */
+    Optional<Reservation> deadLettered(JournalEntry entry, Consumer<Reservation> onDrop) {
+        UUID reservationId = entry.getReservationId();
+        ReentrantLock lock = locks[Math.floorMod(reservationId.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            Tracked current = tracked.get(reservationId);
+            if (current == null || current.cancelled() != (entry.getType() == JournalEntry.Type.CANCEL)) {
+                return Optional.empty();
+            }
+            onDrop.accept(current.reservation());
+            tracked.remove(reservationId);
+            untrack(reservationId, current);
+            return Optional.of(current.reservation());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets reservations whose latest state the journal writer has committed.
+     */
+    void flushed(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            boolean cancel = entry.getType() == JournalEntry.Type.CANCEL;
+            Tracked current = tracked.get(entry.getReservationId());
+            if (current != null && current.cancelled() == cancel && tracked.remove(entry.getReservationId(), current)) {
+                untrack(entry.getReservationId(), current);
+            }
+        }
+    }
+
+    private void track(Reservation reservation, boolean cancelled) {
+        UUID reservationId = reservation.getReservationId();
+        tracked.put(reservationId, new Tracked(reservation, cancelled));
+        if (reservation.getUserId() != null) {
+            byUser.compute(reservation.getUserId(), (userId, ids) -> {
+                Set<UUID> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                updated.add(reservationId);
+                return updated;
+            });
+        }
+    }
+
+    // Checked again inside compute, so a reservation tracked anew meanwhile stays indexed
+    private void untrack(UUID reservationId, Tracked removed) {
+        if (removed == null || removed.reservation().getUserId() == null) {
+            return;
+        }
+        byUser.computeIfPresent(removed.reservation().getUserId(), (userId, ids) -> {
+            if (!tracked.containsKey(reservationId)) {
+                ids.remove(reservationId);
+            }
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private record Tracked(Reservation reservation, boolean cancelled) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.util.MetricsRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs service calls on virtual threads and routes reservations through one bounded queue per
+ * event. Each event is drained by at most a few workers and all events share a global budget of
+ * concurrently running calls, so an on-sale spike for one event cannot take every slot. When an
+ * event's queue is full, or the category is already sold out, the call fails fast with a
+ * {@link RejectedExecutionException} instead of waiting.
+ *
+ * <p>Queues are only created for events that exist, and ones left idle are dropped when the
+ * next queue is created. Queue depth, rejections and queue wait times are published through
+ * {@link MetricsRegistry} until the executor is closed.
+ */
+public class ReservationExecutor implements AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1_000;
+    private static final int DEFAULT_WORKERS_PER_EVENT = 4;
+    private static final int DEFAULT_MAX_CONCURRENT_CALLS = 32;
+    private static final long IDLE_QUEUE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ReservationService reservationService;
+    private final int queueCapacity;
+    private final int workersPerEvent;
+    private final Semaphore runningCalls;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<UUID, EventQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+
+    public ReservationExecutor(ReservationService reservationService) {
+        this(reservationService, DEFAULT_QUEUE_CAPACITY, DEFAULT_WORKERS_PER_EVENT, DEFAULT_MAX_CONCURRENT_CALLS);
+    }
+
+    public ReservationExecutor(ReservationService reservationService, int queueCapacity, int workersPerEvent, int maxConcurrentCalls) {
+        this.reservationService = reservationService;
+        this.queueCapacity = queueCapacity;
+        this.workersPerEvent = workersPerEvent;
+        this.runningCalls = new Semaphore(maxConcurrentCalls, true);
+        gauges.put("reservation_queue_depth", this::getTotalQueueDepth);
+        gauges.put("reservation_queues", queues::size);
+        gauges.put("reservation_rejected_total", this::getRejectedCount);
+        gauges.put("reservation_completed_total", this::getCompletedCount);
+        gauges.put("reservation_wait_micros_avg", () -> Math.round(getAverageWaitMillis() * 1_000));
+        gauges.put("reservation_wait_micros_max", () -> Math.round(getMaxWaitMillis() * 1_000));
+        gauges.forEach(MetricsRegistry.global()::gauge);
+    }
+
+    public CompletableFuture<Reservation> createReservation(UUID eventId, UUID categoryId, int quantity, UUID userId) {
+        return createReservation(eventId, categoryId, quantity, userId, null);
+    }
+
+    /**
+     * Keyed requests skip the sold-out check, since a retry of one that succeeded must still
+     * get its reservation back after the category sold out.
+     */
+    public CompletableFuture<Reservation> createReservation(UUID eventId, UUID categoryId, int quantity, UUID userId,
+                                                            String idempotencyKey) {
+        if (idempotencyKey == null && reservationService.isSoldOut(eventId, categoryId, quantity)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Sold out"));
+        }
+        EventQueue queue = queueFor(eventId);
+        if (queue == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Event not found"));
+        }
+        return queue.submit(() -> reservationService.createReservation(eventId, categoryId, quantity, userId,
+                idempotencyKey));
+    }
+
+    /**
+     * Queues a group order behind the event's other reservations.
+     */
+    public CompletableFuture<ReservationOrder> createOrder(UUID eventId, List<OrderLine> lines, UUID userId) {
+        EventQueue queue = queueFor(eventId);
+        if (queue == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Event not found"));
+        }
+        return queue.submit(() -> reservationService.createOrder(eventId, lines, userId));
+    }
+
+    /**
+     * Runs any other service call on a virtual thread within the shared concurrency budget.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> call) {
+        Task<T> task = new Task<>(call);
+        executor.execute(task::run);
+        return task.future;
+    }
+
+    public int getQueueDepth(UUID eventId) {
+        EventQueue queue = queues.get(eventId);
+        return queue == null ? 0 : queue.tasks.size();
+    }
+
+    public int getTotalQueueDepth() {
+        return queues.values().stream().mapToInt(queue -> queue.tasks.size()).sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalWaitNanos.sum() / (count * 1_000_000.0);
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    // Null for an unknown event, so made-up ids cannot pile up queues
+    private EventQueue queueFor(UUID eventId) {
+        EventQueue queue = queues.get(eventId);
+        if (queue != null) {
+            return queue;
+        }
+        if (!reservationService.hasEvent(eventId)) {
+            return null;
+        }
+        sweepIdleQueues();
+        return queues.computeIfAbsent(eventId, id -> new EventQueue());
+    }
+
+    // A caller still holding a dropped queue is served by the worker its submit starts
+    private void sweepIdleQueues() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < IDLE_QUEUE_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        queues.values().removeIf(queue -> queue.isIdleSince(now - IDLE_QUEUE_NANOS));
+    }
+
+    @Override
+    public void close() {
+        // The registry would otherwise keep this executor reachable
+        gauges.forEach(MetricsRegistry.global()::removeGauge);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class EventQueue {
+        private final ArrayBlockingQueue<Task<?>> tasks = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicInteger workers = new AtomicInteger();
+        private volatile long lastUsed = System.nanoTime();
+
+        private <T> CompletableFuture<T> submit(Callable<T> call) {
+            lastUsed = System.nanoTime();
+            Task<T> task = new Task<>(call);
+            if (!tasks.offer(task)) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending requests, try later"));
+            }
+            startWorkerIfNeeded();
+            return task.future;
+        }
+
+        private boolean isIdleSince(long nanos) {
+            return lastUsed - nanos < 0 && tasks.isEmpty() && workers.get() == 0;
+        }
+
+        private void startWorkerIfNeeded() {
+            while (true) {
+                int current = workers.get();
+                if (current >= workersPerEvent) {
+                    return;
+                }
+                if (workers.compareAndSet(current, current + 1)) {
+                    executor.execute(this::drain);
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Task<?> task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                workers.decrementAndGet();
+            }
+            // A task may have been queued after the last poll but before the decrement
+            if (!tasks.isEmpty()) {
+                startWorkerIfNeeded();
+            }
+        }
+    }
+
+    private final class Task<T> {
+        private final Callable<T> call;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long queuedAt = System.nanoTime();
+
+        private Task(Callable<T> call) {
+            this.call = call;
+        }
+
+        private void run() {
+            try {
+                runningCalls.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            long waited = System.nanoTime() - queuedAt;
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+            try {
+                future.complete(call.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                runningCalls.release();
+                completed.increment();
+            }
+        }
+    }
+}
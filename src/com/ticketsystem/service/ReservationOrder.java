@@ -0,0 +1,23 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Reservation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A group order that was taken as a whole: one reservation per order line, in line order.
+ */
+public record ReservationOrder(UUID orderId, UUID eventId, List<Reservation> reservations) {
+    public ReservationOrder {
+        reservations = List.copyOf(reservations);
+    }
+
+    public long getTotalPriceCents() {
+        long total = 0;
+        for (Reservation reservation : reservations) {
+            total = Math.addExact(total, reservation.getTotalPriceCents());
+        }
+        return total;
+    }
+}
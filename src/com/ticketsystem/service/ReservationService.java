@@ -3,69 +3,874 @@ package com.ticketsystem.service;
 import com.ticketsystem.model.Event;
 import com.ticketsystem.model.Reservation;
 import com.ticketsystem.model.TicketCategory;
-import com.ticketsystem.repository.ReservationRepository;
-import com.ticketsystem.repository.TicketCategoryRepository;
+import com.ticketsystem.repository.IReservationRepository;
+import com.ticketsystem.repository.ITicketCategoryRepository;
+import com.ticketsystem.repository.JournalEntry;
+import com.ticketsystem.repository.ReservationJournal;
+import com.ticketsystem.util.MethodStats;
+import com.ticketsystem.util.MetricsRegistry;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
- * Service class to handle reservation-related operations.
+ * Service class to handle reservation-related operations. With a journal, seats are decided by
+ * the in-memory inventory and written behind; without one, every reservation is decided by a
+ * conditional update in the database, which is safe when several instances share it.
+ *
+ * <p>The {@code ...Async} methods run on the async executor, a virtual thread per call unless
+ * configured, and fail with the exception the synchronous method would throw.
  */
 public class ReservationService {
+    static final int MAX_ORDER_LINES = 100;
+
+    private static final MethodStats CREATE_RESERVATION =
+            MetricsRegistry.global().stats("ReservationService.createReservation");
+    private static final MethodStats CREATE_ORDER = MetricsRegistry.global().stats("ReservationService.createOrder");
+    private static final MethodStats HOLD_SEATS = MetricsRegistry.global().stats("ReservationService.holdSeats");
+    private static final MethodStats CONFIRM_HOLD = MetricsRegistry.global().stats("ReservationService.confirmHold");
+    private static final MethodStats GET_RESERVATION_BY_ID =
+            MetricsRegistry.global().stats("ReservationService.getReservationById");
+    private static final MethodStats GET_RESERVATIONS_BY_USER_ID =
+            MetricsRegistry.global().stats("ReservationService.getReservationsByUserId");
+    private static final MethodStats CANCEL_RESERVATION =
+            MetricsRegistry.global().stats("ReservationService.cancelReservation");
+    private static final MethodStats GET_ALL_RESERVATIONS =
+            MetricsRegistry.global().stats("ReservationService.getAllReservations");
+    private static final MethodStats GET_AVAILABLE_TICKETS_1 =
+            MetricsRegistry.global().stats("ReservationService.getAvailableTickets/1");
+    private static final MethodStats GET_AVAILABLE_TICKETS_2 =
+            MetricsRegistry.global().stats("ReservationService.getAvailableTickets/2");
+    private static final MethodStats IS_SOLD_OUT = MetricsRegistry.global().stats("ReservationService.isSoldOut");
+    private static final MethodStats FOR_EACH_CATEGORY =
+            MetricsRegistry.global().stats("ReservationService.forEachCategory");
+    private static final MethodStats GET_EVENT_AVAILABILITY =
+            MetricsRegistry.global().stats("ReservationService.getEventAvailability");
+    private static final MethodStats SUBSCRIBE_TO_AVAILABILITY =
+            MetricsRegistry.global().stats("ReservationService.subscribeToAvailability");
+    private static final MethodStats ADD_TICKET_CATEGORY =
+            MetricsRegistry.global().stats("ReservationService.addTicketCategory");
+    private static final MethodStats GET_REVENUE_REPORT =
+            MetricsRegistry.global().stats("ReservationService.getRevenueReport");
+
     private final EventService eventService;
-    private final ReservationRepository reservationRepository;
-    private final TicketCategoryRepository ticketCategoryRepository;
+    private final IReservationRepository<Reservation, UUID> reservationRepository;
+    private final ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository;
+    private final SeatInventory seatInventory;
+    // Reservations are acknowledged once journaled; the journal writes them to the database in batches
+    private final ReservationJournal journal;
+    private final SeatHolds seatHolds;
+    private final PendingReservations pendingReservations;
+    // Only kept while this node is the sole writer, i.e. journaled and not sharded
+    private final UserReservationCache userReservations;
+    // Set when this node is one of several sharing the inventory by event
+    private final ShardRouter shardRouter;
+    private final Executor asyncExecutor;
+    private final IdempotencyKeys<Reservation> idempotencyKeys = new IdempotencyKeys<>();
+
+    /**
+     * Decides reservations in the database, one transaction per reservation.
+     */
+    public ReservationService(EventService eventService, IReservationRepository<Reservation, UUID> reservationRepository,
+                              ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository) {
+        this(eventService, reservationRepository, ticketCategoryRepository, null);
+    }
+
+    public ReservationService(EventService eventService, IReservationRepository<Reservation, UUID> reservationRepository,
+                              ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository,
+                              ReservationJournal journal) {
+        this(eventService, reservationRepository, ticketCategoryRepository, journal, null);
+    }
 
-    public ReservationService(EventService eventService, ReservationRepository reservationRepository, TicketCategoryRepository ticketCategoryRepository) {
+    /**
+     * Runs as one shard node: this node decides reservations for the events it owns and forwards
+     * the others to their owner.
+     */
+    public ReservationService(EventService eventService, IReservationRepository<Reservation, UUID> reservationRepository,
+                              ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository,
+                              ReservationJournal journal, ShardRouter shardRouter) {
+        this(eventService, reservationRepository, ticketCategoryRepository, journal, shardRouter,
+                AsyncExecutors.virtualThreads("reservation-service"));
+    }
+
+    public ReservationService(EventService eventService, IReservationRepository<Reservation, UUID> reservationRepository,
+                              ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository,
+                              ReservationJournal journal, ShardRouter shardRouter, Executor asyncExecutor) {
         this.eventService = eventService;
         this.reservationRepository = reservationRepository;
         this.ticketCategoryRepository = ticketCategoryRepository;
+        this.seatInventory = new SeatInventory(ticketCategoryRepository);
+        this.journal = journal;
+        this.seatHolds = journal == null ? null : new SeatHolds(seatInventory);
+        this.pendingReservations = journal == null ? null : new PendingReservations();
+        if (journal != null) {
+            journal.setFlushListener(pendingReservations::flushed);
+            journal.setDeadLetterListener(this::deadLettered);
+        }
+        this.shardRouter = shardRouter;
+        this.userReservations = journal == null || shardRouter != null ? null : new UserReservationCache();
+        this.asyncExecutor = asyncExecutor;
     }
 
     public Reservation createReservation(UUID eventId, UUID categoryId, int quantity, UUID userId) {
+        return createReservation(eventId, categoryId, quantity, userId, null);
+    }
+
+    /**
+     * Creates a reservation once per idempotency key: a retry with the same key, e.g. after a
+     * client timeout, returns the reservation of the first attempt without taking tickets again,
+     * and concurrent duplicates wait for that attempt. A null key reserves unconditionally; a key
+     * needs a user.
+     */
+    public Reservation createReservation(UUID eventId, UUID categoryId, int quantity, UUID userId,
+                                         String idempotencyKey) {
+        long startNanos = System.nanoTime();
+        try {
+            if (isRemote(eventId)) {
+                return shardRouter.clientFor(eventId).reserve(eventId, categoryId, quantity, userId, idempotencyKey);
+            }
+            return reserveLocally(eventId, categoryId, quantity, userId, idempotencyKey);
+        } catch (RuntimeException e) {
+            CREATE_RESERVATION.recordError();
+            throw e;
+        } finally {
+            CREATE_RESERVATION.record(startNanos);
+        }
+    }
+
+    /**
+     * Asynchronous {@link #createReservation}. The event and the category are looked up
+     * concurrently, so a reservation whose category is not in memory yet waits for one
+     * database round trip before it is decided instead of two.
+     */
+    public CompletableFuture<Reservation> createReservationAsync(UUID eventId, UUID categoryId, int quantity,
+                                                                 UUID userId) {
+        if (isRemote(eventId)) {
+            return CompletableFuture.supplyAsync(() -> createReservation(eventId, categoryId, quantity, userId),
+                    asyncExecutor);
+        }
+        long startNanos = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> eventService.getEventById(eventId), asyncExecutor)
+                .thenCombine(getCategoryAsync(categoryId),
+                        (event, category) -> reserve(UUID.randomUUID(), event, category, quantity, userId))
+                .whenComplete((reservation, failure) -> {
+                    if (failure != null) {
+                        CREATE_RESERVATION.recordError();
+                    }
+                    CREATE_RESERVATION.record(startNanos);
+                });
+    }
+
+    public CompletableFuture<Reservation> createReservationAsync(UUID eventId, UUID categoryId, int quantity,
+                                                                 UUID userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createReservationAsync(eventId, categoryId, quantity, userId);
+        }
+        return CompletableFuture.supplyAsync(
+                () -> createReservation(eventId, categoryId, quantity, userId, idempotencyKey), asyncExecutor);
+    }
+
+    Reservation reserveLocally(UUID eventId, UUID categoryId, int quantity, UUID userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return reserveWithId(eventId, categoryId, quantity, userId, UUID.randomUUID());
+        }
+        return idempotencyKeys.execute(userId, idempotencyKey, new KeyedReservation(eventId, categoryId, quantity),
+                reservationId -> {
+                    // The id is derived from the key, so a retry whose entry has expired, or that
+                    // arrives after a restart, finds the first attempt's reservation here
+                    Optional<Reservation> earlier = findReservation(reservationId);
+                    if (earlier.isPresent()) {
+                        return checkSameRequest(earlier.get(), eventId, categoryId, quantity, userId);
+                    }
+                    return reserveWithId(eventId, categoryId, quantity, userId, reservationId);
+                });
+    }
+
+    private Reservation reserveWithId(UUID eventId, UUID categoryId, int quantity, UUID userId, UUID reservationId) {
         Event event = eventService.getEventById(eventId);
+        return reserve(reservationId, event, seatInventory.getCategory(categoryId), quantity, userId);
+    }
+
+    private static Reservation checkSameRequest(Reservation reservation, UUID eventId, UUID categoryId, int quantity,
+                                                UUID userId) {
+        if (!userId.equals(reservation.getUserId())
+                || !reservation.getEvent().getEventId().equals(eventId)
+                || !reservation.getCategory().getCategoryId().equals(categoryId)
+                || reservation.getQuantity() != quantity) {
+            throw new IllegalArgumentException("Idempotency key was already used for a different request");
+        }
+        return reservation;
+    }
+
+    private Reservation reserve(UUID reservationId, Event event, Optional<TicketCategory> found, int quantity,
+                                UUID userId) {
         if (event == null) {
             throw new IllegalArgumentException("Event not found");
         }
 
-        Optional<TicketCategory> category = ticketCategoryRepository.findById(categoryId);
+        TicketCategory category = categoryOf(event, found);
+        UUID categoryId = category.getCategoryId();
 
-        if (category.isEmpty()) {
-            throw new IllegalArgumentException("Ticket category not found");
+        if (journal == null) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            Reservation reservation = new Reservation(reservationId, event, category, quantity, userId);
+            if (!reservationRepository.reserve(reservation)) {
+                throw new IllegalArgumentException("Not enough tickets available");
+            }
+            return reservation;
         }
 
-        if (!category.get().reserveTickets(quantity)) {
+        if (!seatInventory.tryReserve(categoryId, quantity)) {
             throw new IllegalArgumentException("Not enough tickets available");
         }
 
-        Reservation reservation = new Reservation(event, category.get(), quantity, userId);
-        reservationRepository.save(reservation);
-        ticketCategoryRepository.update(categoryId, category.get());
+        Reservation reservation = new Reservation(reservationId, event, category, quantity, userId);
+        pendingReservations.reserved(reservation);
+        try {
+            journal.append(JournalEntry.reserve(reservation));
+        } catch (RuntimeException e) {
+            pendingReservations.discard(reservationId);
+            seatInventory.release(categoryId, quantity);
+            throw e;
+        }
+        if (userReservations != null) {
+            userReservations.record(reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Reserves every line of a group order for one event, or none of them. Each line becomes a
+     * reservation of its own; the order id groups them in the response and is not stored.
+     */
+    public ReservationOrder createOrder(UUID eventId, List<OrderLine> lines, UUID userId) {
+        long startNanos = System.nanoTime();
+        try {
+            if (isRemote(eventId)) {
+                return shardRouter.clientFor(eventId).order(eventId, lines, userId);
+            }
+            return orderLocally(eventId, lines, userId);
+        } catch (RuntimeException e) {
+            CREATE_ORDER.recordError();
+            throw e;
+        } finally {
+            CREATE_ORDER.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<ReservationOrder> createOrderAsync(UUID eventId, List<OrderLine> lines, UUID userId) {
+        return CompletableFuture.supplyAsync(() -> createOrder(eventId, lines, userId), asyncExecutor);
+    }
+
+    ReservationOrder orderLocally(UUID eventId, List<OrderLine> lines, UUID userId) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Order has no lines");
+        }
+        if (lines.size() > MAX_ORDER_LINES) {
+            throw new IllegalArgumentException("Order has more than " + MAX_ORDER_LINES + " lines");
+        }
+        Event event = eventService.getEventById(eventId);
+        if (event == null) {
+            throw new IllegalArgumentException("Event not found");
+        }
+        List<Reservation> reservations = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            if (line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            TicketCategory category = categoryOf(event, seatInventory.getCategory(line.categoryId()));
+            reservations.add(new Reservation(event, category, line.quantity(), userId));
+        }
+
+        if (journal == null) {
+            if (!reservationRepository.reserveAll(reservations)) {
+                throw new IllegalArgumentException("Not enough tickets available");
+            }
+            return new ReservationOrder(UUID.randomUUID(), eventId, reservations);
+        }
+
+        if (!seatInventory.tryReserveAll(lines)) {
+            throw new IllegalArgumentException("Not enough tickets available");
+        }
+        List<JournalEntry> entries = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            entries.add(JournalEntry.reserve(reservation));
+        }
+        reservations.forEach(pendingReservations::reserved);
+        try {
+            journal.appendAll(entries);
+        } catch (RuntimeException e) {
+            reservations.forEach(reservation -> pendingReservations.discard(reservation.getReservationId()));
+            seatInventory.releaseAll(lines);
+            throw e;
+        }
+        if (userReservations != null) {
+            reservations.forEach(userReservations::record);
+        }
+        return new ReservationOrder(UUID.randomUUID(), eventId, reservations);
+    }
+
+    /**
+     * Holds seats for the given time, e.g. while payment runs. The hold lapses and its seats
+     * return to availability unless {@link #confirmHold} is called first.
+     */
+    public Reservation holdSeats(UUID eventId, UUID categoryId, int quantity, UUID userId, Duration ttl) {
+        long startNanos = System.nanoTime();
+        try {
+            if (isRemote(eventId)) {
+                return shardRouter.clientFor(eventId).hold(eventId, categoryId, quantity, userId, ttl);
+            }
+            return holdLocally(eventId, categoryId, quantity, userId, ttl);
+        } catch (RuntimeException e) {
+            HOLD_SEATS.recordError();
+            throw e;
+        } finally {
+            HOLD_SEATS.record(startNanos);
+        }
+    }
+
+    /**
+     * Asynchronous {@link #holdSeats}, looking up the event and the category concurrently.
+     */
+    public CompletableFuture<Reservation> holdSeatsAsync(UUID eventId, UUID categoryId, int quantity, UUID userId,
+                                                         Duration ttl) {
+        if (isRemote(eventId) || seatHolds == null) {
+            return CompletableFuture.supplyAsync(() -> holdSeats(eventId, categoryId, quantity, userId, ttl),
+                    asyncExecutor);
+        }
+        long startNanos = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> eventService.getEventById(eventId), asyncExecutor)
+                .thenCombine(getCategoryAsync(categoryId),
+                        (event, category) -> hold(event, category, quantity, userId, ttl))
+                .whenComplete((reservation, failure) -> {
+                    if (failure != null) {
+                        HOLD_SEATS.recordError();
+                    }
+                    HOLD_SEATS.record(startNanos);
+                });
+    }
+
+    Reservation holdLocally(UUID eventId, UUID categoryId, int quantity, UUID userId, Duration ttl) {
+        if (seatHolds == null) {
+            throw new IllegalStateException("Seat holds need the in-memory inventory");
+        }
+        Event event = eventService.getEventById(eventId);
+        return hold(event, seatInventory.getCategory(categoryId), quantity, userId, ttl);
+    }
+
+    private Reservation hold(Event event, Optional<TicketCategory> found, int quantity, UUID userId, Duration ttl) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event not found");
+        }
+        return seatHolds.hold(event, categoryOf(event, found), quantity, userId, ttl);
+    }
+
+    // Requests are routed by event, so a category of another event would be sold by two nodes
+    private static TicketCategory categoryOf(Event event, Optional<TicketCategory> found) {
+        TicketCategory category = found.orElseThrow(() -> new IllegalArgumentException("Ticket category not found"));
+        if (!event.getEventId().equals(category.getEventId())) {
+            throw new IllegalArgumentException("Ticket category " + category.getCategoryId()
+                    + " does not belong to event " + event.getEventId());
+        }
+        return category;
+    }
+
+    /**
+     * The category on the async executor, or at once when the inventory already has it in memory.
+     */
+    private CompletableFuture<Optional<TicketCategory>> getCategoryAsync(UUID categoryId) {
+        if (seatInventory.isLoaded(categoryId)) {
+            return CompletableFuture.completedFuture(seatInventory.getCategory(categoryId));
+        }
+        return CompletableFuture.supplyAsync(() -> seatInventory.getCategory(categoryId), asyncExecutor);
+    }
+
+    /**
+     * Confirms a live hold without checking availability again; its seats are already taken.
+     */
+    public Reservation confirmHold(UUID reservationId) {
+        long startNanos = System.nanoTime();
+        try {
+            if (seatHolds == null) {
+                throw new IllegalStateException("Seat holds need the in-memory inventory");
+            }
+            Optional<Reservation> reservation = confirmHoldLocally(reservationId);
+            if (reservation.isEmpty() && shardRouter != null) {
+                // The hold id does not say which node owns it, so ask each in turn
+                for (ShardClient peer : shardRouter.peers()) {
+                    reservation = peer.confirmHold(reservationId);
+                    if (reservation.isPresent()) {
+                        break;
+                    }
+                }
+            }
+            return reservation.orElseThrow(() -> new IllegalArgumentException("Hold not found or expired"));
+        } catch (RuntimeException e) {
+            CONFIRM_HOLD.recordError();
+            throw e;
+        } finally {
+            CONFIRM_HOLD.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<Reservation> confirmHoldAsync(UUID reservationId) {
+        return CompletableFuture.supplyAsync(() -> confirmHold(reservationId), asyncExecutor);
+    }
+
+    Optional<Reservation> confirmHoldLocally(UUID reservationId) {
+        if (seatHolds == null) {
+            return Optional.empty();
+        }
+        Optional<Reservation> reservation = seatHolds.confirm(reservationId);
+        reservation.ifPresent(confirmed -> {
+            pendingReservations.reserved(confirmed);
+            try {
+                journal.append(JournalEntry.reserve(confirmed));
+            } catch (RuntimeException e) {
+                // The hold is gone, so its seats go back to availability like those of a failed reserve
+                pendingReservations.discard(confirmed.getReservationId());
+                seatInventory.release(confirmed.getCategory().getCategoryId(), confirmed.getQuantity());
+                confirmed.cancelReservation();
+                throw e;
+            }
+            if (userReservations != null) {
+                userReservations.record(confirmed);
+            }
+        });
         return reservation;
     }
 
+    Optional<Reservation> findHoldLocally(UUID reservationId) {
+        return seatHolds == null ? Optional.empty() : seatHolds.get(reservationId);
+    }
+
+    public int getHeldTickets(UUID categoryId) {
+        return seatInventory.getHeldTickets(categoryId);
+    }
+
+    public int getActiveHoldCount() {
+        return seatHolds == null ? 0 : seatHolds.size();
+    }
+
+    public long getExpiredHoldCount() {
+        return seatHolds == null ? 0 : seatHolds.getExpiredCount();
+    }
+
+    /**
+     * Keyed reservation requests answered with the result of an earlier attempt.
+     */
+    public long getIdempotentReplayCount() {
+        return idempotencyKeys.getReplayCount();
+    }
+
     public Reservation getReservationById(UUID reservationId) {
-        return reservationRepository.findById(reservationId).orElse(null);
+        long startNanos = System.nanoTime();
+        try {
+            Optional<Reservation> hold = findHoldLocally(reservationId);
+            if (hold.isPresent()) {
+                return hold.get();
+            }
+            Optional<Reservation> reservation = findReservation(reservationId);
+            if (reservation.isEmpty() && shardRouter != null) {
+                // Holds are never written to the database, so one held on another node is only found there
+                for (ShardClient peer : shardRouter.peers()) {
+                    reservation = peer.findHold(reservationId);
+                    if (reservation.isPresent()) {
+                        break;
+                    }
+                }
+            }
+            return reservation.orElse(null);
+        } catch (RuntimeException e) {
+            GET_RESERVATION_BY_ID.recordError();
+            throw e;
+        } finally {
+            GET_RESERVATION_BY_ID.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<Reservation> getReservationByIdAsync(UUID reservationId) {
+        return CompletableFuture.supplyAsync(() -> getReservationById(reservationId), asyncExecutor);
     }
 
     public List<Reservation> getReservationsByUserId(UUID userId) {
-        return reservationRepository.findAllByUser(userId);
+        long startNanos = System.nanoTime();
+        try {
+            if (userReservations != null) {
+                return userReservations.get(userId, this::loadReservationsByUser);
+            }
+            return loadReservationsByUser(userId);
+        } catch (RuntimeException e) {
+            GET_RESERVATIONS_BY_USER_ID.recordError();
+            throw e;
+        } finally {
+            GET_RESERVATIONS_BY_USER_ID.record(startNanos);
+        }
+    }
+
+    // The repository's rows plus this node's journaled changes it does not have yet. Pending ones
+    // are read first, so one flushed in between is found in the repository; a cancelled copy
+    // wins, since a cancel is never undone once it reaches the database.
+    private List<Reservation> loadReservationsByUser(UUID userId) {
+        if (pendingReservations == null) {
+            return reservationRepository.findAllByUser(userId);
+        }
+        List<Reservation> pending = pendingReservations.findByUser(userId);
+        List<Reservation> stored = reservationRepository.findAllByUser(userId);
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        Map<UUID, Reservation> merged = new LinkedHashMap<>();
+        for (Reservation reservation : stored) {
+            merged.put(reservation.getReservationId(), reservation);
+        }
+        for (Reservation reservation : pending) {
+            merged.merge(reservation.getReservationId(), reservation,
+                    (storedCopy, pendingCopy) -> "CANCELLED".equals(storedCopy.getStatus()) ? storedCopy : pendingCopy);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    public CompletableFuture<List<Reservation>> getReservationsByUserIdAsync(UUID userId) {
+        return CompletableFuture.supplyAsync(() -> getReservationsByUserId(userId), asyncExecutor);
     }
 
     public void cancelReservation(UUID reservationId) {
-        Reservation reservation = getReservationById(reservationId);
+        long startNanos = System.nanoTime();
+        try {
+            if (seatHolds != null && seatHolds.release(reservationId)) {
+                return;
+            }
+            Reservation reservation = findReservation(reservationId).orElse(null);
+            if (reservation == null) {
+                if (shardRouter != null) {
+                    // May be a hold on another node
+                    for (ShardClient peer : shardRouter.peers()) {
+                        if (peer.cancel(reservationId)) {
+                            return;
+                        }
+                    }
+                }
+                return;
+            }
+            if ("CANCELLED".equals(reservation.getStatus())) {
+                return;
+            }
+            UUID eventId = reservation.getEvent().getEventId();
+            if (isRemote(eventId)) {
+                shardRouter.clientFor(eventId).cancel(reservationId);
+                return;
+            }
+            cancelPersisted(reservation);
+        } catch (RuntimeException e) {
+            CANCEL_RESERVATION.recordError();
+            throw e;
+        } finally {
+            CANCEL_RESERVATION.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<Void> cancelReservationAsync(UUID reservationId) {
+        return CompletableFuture.runAsync(() -> cancelReservation(reservationId), asyncExecutor);
+    }
+
+    /**
+     * Cancels a hold or reservation of this node; false when there is none with that id.
+     */
+    boolean cancelLocally(UUID reservationId) {
+        if (seatHolds != null && seatHolds.release(reservationId)) {
+            return true;
+        }
+        Reservation reservation = findReservation(reservationId).orElse(null);
         if (reservation == null) {
+            return false;
+        }
+        if (!"CANCELLED".equals(reservation.getStatus())) {
+            cancelPersisted(reservation);
+        }
+        return true;
+    }
+
+    // Journaled reservations reach the database later, so this node's own are looked up first
+    private Optional<Reservation> findReservation(UUID reservationId) {
+        if (pendingReservations != null) {
+            Optional<Reservation> pending = pendingReservations.find(reservationId);
+            if (pending.isPresent()) {
+                return pending;
+            }
+        }
+        return reservationRepository.findById(reservationId);
+    }
+
+    private void cancelPersisted(Reservation reservation) {
+        if (journal == null) {
+            // Same idempotent transaction the journal writer uses: status change plus availability
+            reservation.cancelReservation();
+            reservationRepository.applyJournal(List.of(JournalEntry.cancel(reservation)));
             return;
         }
+        // The copy passed in may be stale; the status is decided again under the reservation's lock
+        Optional<Reservation> cancelled = pendingReservations.cancel(reservation.getReservationId(),
+                reservationRepository::findById, current -> {
+                    journal.append(JournalEntry.cancel(current));
+                    seatInventory.release(current.getCategory().getCategoryId(), current.getQuantity());
+                });
+        if (userReservations != null) {
+            cancelled.ifPresent(userReservations::record);
+        }
+    }
 
-        reservation.cancelReservation();
-        reservationRepository.update(reservationId, reservation);
-        ticketCategoryRepository.update(reservation.getCategory().getCategoryId(), reservation.getCategory());
+    // The database never applied the change, so memory goes back to what the database holds
+    private void deadLettered(JournalEntry entry) {
+        boolean cancel = entry.getType() == JournalEntry.Type.CANCEL;
+        Optional<Reservation> dropped = pendingReservations.deadLettered(entry, reservation -> {
+            UUID categoryId = reservation.getCategory().getCategoryId();
+            if (cancel) {
+                seatInventory.take(categoryId, reservation.getQuantity());
+            } else {
+                seatInventory.release(categoryId, reservation.getQuantity());
+                reservation.cancelReservation();
+            }
+        });
+        if (userReservations != null) {
+            dropped.ifPresent(reservation -> {
+                if (cancel) {
+                    userReservations.record(new Reservation(reservation.getReservationId(), reservation.getEvent(),
+                            reservation.getCategory(), reservation.getQuantity(), reservation.getReservationDate(),
+                            "CONFIRMED", reservation.getUserId()));
+                } else {
+                    userReservations.forget(reservation.getUserId(), reservation.getReservationId());
+                }
+            });
+        }
     }
 
     public List<Reservation> getAllReservations() {
-        return reservationRepository.findAll();
+        long startNanos = System.nanoTime();
+        try {
+            return reservationRepository.findAll();
+        } catch (RuntimeException e) {
+            GET_ALL_RESERVATIONS.recordError();
+            throw e;
+        } finally {
+            GET_ALL_RESERVATIONS.record(startNanos);
+        }
+    }
+
+    /**
+     * Streams every reservation through a database cursor. Close the stream when done.
+     */
+    public Stream<Reservation> streamAllReservations() {
+        return reservationRepository.streamAll();
+    }
+
+    /**
+     * Revenue of every confirmed reservation the repository holds, per event. Reservations
+     * still waiting in the journal are not counted yet.
+     */
+    public RevenueReport getRevenueReport() {
+        long startNanos = System.nanoTime();
+        try {
+            RevenueReport.Builder report = RevenueReport.builder();
+            reservationRepository.forEachConfirmedSale(report::add);
+            return report.build();
+        } catch (RuntimeException e) {
+            GET_REVENUE_REPORT.recordError();
+            throw e;
+        } finally {
+            GET_REVENUE_REPORT.record(startNanos);
+        }
+    }
+
+    public int getAvailableTickets(UUID categoryId) {
+        long startNanos = System.nanoTime();
+        try {
+            return getLocalAvailableTickets(categoryId);
+        } catch (RuntimeException e) {
+            GET_AVAILABLE_TICKETS_1.recordError();
+            throw e;
+        } finally {
+            GET_AVAILABLE_TICKETS_1.record(startNanos);
+        }
+    }
+
+    /**
+     * Availability as seen by the node that owns the event.
+     */
+    public int getAvailableTickets(UUID eventId, UUID categoryId) {
+        long startNanos = System.nanoTime();
+        try {
+            if (isRemote(eventId)) {
+                return shardRouter.clientFor(eventId).getAvailableTickets(categoryId);
+            }
+            return getLocalAvailableTickets(categoryId);
+        } catch (RuntimeException e) {
+            GET_AVAILABLE_TICKETS_2.recordError();
+            throw e;
+        } finally {
+            GET_AVAILABLE_TICKETS_2.record(startNanos);
+        }
+    }
+
+    /**
+     * Calls the visitor for each category of the event with its remaining tickets and price in
+     * cents. Events this node decides in memory are read from the inventory's columns without
+     * allocating per category; the others are read from the repository or the owning node.
+     */
+    public void forEachCategory(UUID eventId, SeatInventory.CategoryVisitor visitor) {
+        long startNanos = System.nanoTime();
+        try {
+            if (journal != null && !isRemote(eventId)) {
+                seatInventory.forEachCategory(eventId, visitor);
+                return;
+            }
+            boolean remote = isRemote(eventId);
+            for (TicketCategory category : ticketCategoryRepository.findAllByEvent(eventId)) {
+                // The rows already carry the count; only the owning node knows a remote one
+                int available = remote ? getAvailableTickets(eventId, category.getCategoryId())
+                        : category.getAvailableTickets();
+                visitor.visit(category, available, category.getPriceCents());
+            }
+        } catch (RuntimeException e) {
+            FOR_EACH_CATEGORY.recordError();
+            throw e;
+        } finally {
+            FOR_EACH_CATEGORY.record(startNanos);
+        }
+    }
+
+    public EventAvailability getEventAvailability(UUID eventId) {
+        long startNanos = System.nanoTime();
+        try {
+            if (journal != null && !isRemote(eventId)) {
+                return seatInventory.getEventAvailability(eventId);
+            }
+            boolean remote = isRemote(eventId);
+            int available = 0;
+            long lowestPriceCents = -1;
+            for (TicketCategory category : ticketCategoryRepository.findAllByEvent(eventId)) {
+                int remaining = remote ? getAvailableTickets(eventId, category.getCategoryId())
+                        : category.getAvailableTickets();
+                long priceCents = category.getPriceCents();
+                if (remaining > 0) {
+                    available += remaining;
+                    lowestPriceCents = lowestPriceCents < 0 ? priceCents : Math.min(lowestPriceCents, priceCents);
+                }
+            }
+            return new EventAvailability(available, lowestPriceCents);
+        } catch (RuntimeException e) {
+            GET_EVENT_AVAILABILITY.recordError();
+            throw e;
+        } finally {
+            GET_EVENT_AVAILABILITY.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<EventAvailability> getEventAvailabilityAsync(UUID eventId) {
+        return CompletableFuture.supplyAsync(() -> getEventAvailability(eventId), asyncExecutor);
+    }
+
+    /**
+     * Streams the remaining tickets of the event's categories as they change, at most one update
+     * per category per feed tick. Subscribe before reading the current counts with
+     * {@link #forEachCategory}, then apply the changes on top of them.
+     */
+    public AvailabilityFeed.Subscription subscribeToAvailability(UUID eventId) {
+        long startNanos = System.nanoTime();
+        try {
+            if (journal == null) {
+                throw new IllegalStateException("The availability feed needs the in-memory inventory");
+            }
+            if (isRemote(eventId)) {
+                throw new IllegalArgumentException("Event is decided by another node; subscribe there");
+            }
+            return seatInventory.subscribe(eventId);
+        } catch (RuntimeException e) {
+            SUBSCRIBE_TO_AVAILABILITY.recordError();
+            throw e;
+        } finally {
+            SUBSCRIBE_TO_AVAILABILITY.record(startNanos);
+        }
+    }
+
+    /**
+     * Saves a new category of an existing event and adds it to the in-memory inventory, so the
+     * event's scans include it at once. On a sharded setup call it on the node owning the event.
+     */
+    public void addTicketCategory(TicketCategory category) {
+        long startNanos = System.nanoTime();
+        try {
+            if (category.getEventId() == null) {
+                throw new IllegalArgumentException("Ticket category has no event");
+            }
+            ticketCategoryRepository.save(category);
+            seatInventory.addCategory(category);
+        } catch (RuntimeException e) {
+            ADD_TICKET_CATEGORY.recordError();
+            throw e;
+        } finally {
+            ADD_TICKET_CATEGORY.record(startNanos);
+        }
+    }
+
+    boolean hasEvent(UUID eventId) {
+        return eventService.getEventById(eventId) != null;
+    }
+
+    int getLocalAvailableTickets(UUID categoryId) {
+        if (journal == null) {
+            return ticketCategoryRepository.findById(categoryId).map(TicketCategory::getAvailableTickets).orElse(0);
+        }
+        return seatInventory.getAvailableTickets(categoryId);
+    }
+
+    /**
+     * True when the category exists but cannot cover the quantity, so a request can be refused
+     * before it is queued. Events owned by another node are left for that node to decide. In
+     * database mode this is always false: reading the count would cost a query, and the
+     * conditional update refuses a sold-out category just as fast.
+     */
+    public boolean isSoldOut(UUID eventId, UUID categoryId, int quantity) {
+        long startNanos = System.nanoTime();
+        try {
+            if (journal == null || isRemote(eventId)) {
+                return false;
+            }
+            return seatInventory.getCategory(categoryId).isPresent() && seatInventory.getAvailableTickets(categoryId) < quantity;
+        } catch (RuntimeException e) {
+            IS_SOLD_OUT.recordError();
+            throw e;
+        } finally {
+            IS_SOLD_OUT.record(startNanos);
+        }
+    }
+
+    private boolean isRemote(UUID eventId) {
+        return shardRouter != null && !shardRouter.isLocal(eventId);
+    }
+
+    // What a retry must repeat for its key to return the earlier reservation
+    private record KeyedReservation(UUID eventId, UUID categoryId, int quantity) {
+    }
+
+    /**
+     * Stops the availability feed and waits for journaled reservation changes to reach the database.
+     */
+    public void shutdown() {
+        seatInventory.close();
+        if (journal != null) {
+            seatHolds.close();
+            journal.close();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.ticketsystem.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+/**
+ * Revenue and tickets sold per event, in cents. Sales are collected into primitive columns and
+ * totalled in tight loops over them: the price-times-quantity pass has no dependencies between
+ * rows, so the JIT vectorizes it, and the per-event sums are a single scatter over the result.
+ */
+public final class RevenueReport {
+    private final UUID[] eventIds;
+    private final long[] revenueCents;
+    private final long[] ticketsSold;
+    private final Map<UUID, Integer> indexOf;
+
+    private RevenueReport(UUID[] eventIds, long[] revenueCents, long[] ticketsSold, Map<UUID, Integer> indexOf) {
+        this.eventIds = eventIds;
+        this.revenueCents = revenueCents;
+        this.ticketsSold = ticketsSold;
+        this.indexOf = indexOf;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getEventCount() {
+        return eventIds.length;
+    }
+
+    public UUID getEventId(int index) {
+        return eventIds[index];
+    }
+
+    public long getRevenueCents(int index) {
+        return revenueCents[index];
+    }
+
+    public long getTicketsSold(int index) {
+        return ticketsSold[index];
+    }
+
+    /**
+     * Returns the event's revenue, 0 when it sold nothing.
+     */
+    public long getRevenueCents(UUID eventId) {
+        Integer index = indexOf.get(eventId);
+        return index == null ? 0 : revenueCents[index];
+    }
+
+    public long getTotalRevenueCents() {
+        return LongStream.of(revenueCents).sum();
+    }
+
+    public long getTotalTicketsSold() {
+        return LongStream.of(ticketsSold).sum();
+    }
+
+    /**
+     * Collects one row per sale. Event ids are mapped to dense indexes as they arrive, so rows
+     * cost an int, an int and a long each. Not thread-safe.
+     */
+    public static final class Builder {
+        private final Map<UUID, Integer> indexOf = new HashMap<>();
+        private UUID[] eventIds = new UUID[64];
+        private int[] eventOf = new int[1024];
+        private int[] quantities = new int[1024];
+        private long[] priceCents = new long[1024];
+        private int rows;
+
+        private Builder() {
+        }
+
+        public Builder add(UUID eventId, int quantity, long unitPriceCents) {
+            Integer index = indexOf.get(eventId);
+            if (index == null) {
+                index = indexOf.size();
+                indexOf.put(eventId, index);
+                if (index == eventIds.length) {
+                    eventIds = Arrays.copyOf(eventIds, index * 2);
+                }
+                eventIds[index] = eventId;
+            }
+            if (rows == eventOf.length) {
+                eventOf = Arrays.copyOf(eventOf, rows * 2);
+                quantities = Arrays.copyOf(quantities, rows * 2);
+                priceCents = Arrays.copyOf(priceCents, rows * 2);
+            }
+            eventOf[rows] = index;
+            quantities[rows] = quantity;
+            priceCents[rows] = unitPriceCents;
+            rows++;
+            return this;
+        }
+
+        public RevenueReport build() {
+            long[] amounts = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                amounts[i] = priceCents[i] * quantities[i];
+            }
+            int events = indexOf.size();
+            long[] revenueCents = new long[events];
+            long[] ticketsSold = new long[events];
+            for (int i = 0; i < rows; i++) {
+                revenueCents[eventOf[i]] += amounts[i];
+                ticketsSold[eventOf[i]] += quantities[i];
+            }
+            return new RevenueReport(Arrays.copyOf(eventIds, events), revenueCents, ticketsSold, Map.copyOf(indexOf));
+        }
+    }
+}
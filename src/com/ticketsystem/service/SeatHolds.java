@@ -0,0 +1,142 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.util.TimerWheel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Temporary seat holds. Held seats are taken from the in-memory inventory and tracked in a
+ * timer wheel; a reaper thread returns the seats of holds that lapse without being confirmed.
+ * Holds are never written to the database, so after a restart their seats are simply free again.
+ */
+class SeatHolds implements AutoCloseable {
+    private static final long TICK_MILLIS = 100;
+
+    private final SeatInventory seatInventory;
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final TimerWheel<UUID> timers = new TimerWheel<>(TICK_MILLIS, System.currentTimeMillis());
+    private final LongAdder expired = new LongAdder();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seat-hold-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    SeatHolds(SeatInventory seatInventory) {
+        this.seatInventory = seatInventory;
+        reaper.scheduleAtFixedRate(this::expire, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    Reservation hold(Event event, TicketCategory category, int quantity, UUID userId, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive");
+        }
+        if (!seatInventory.tryHold(category.getCategoryId(), quantity)) {
+            throw new IllegalArgumentException("Not enough tickets available");
+        }
+        Reservation reservation = new Reservation(event, category, quantity, userId, LocalDateTime.now().plus(ttl));
+        Hold hold = new Hold(reservation);
+        // Registered before the timer so an early expiry always finds it
+        holds.put(reservation.getReservationId(), hold);
+        synchronized (timers) {
+            hold.timeout = timers.schedule(reservation.getReservationId(), System.currentTimeMillis() + ttl.toMillis());
+        }
+        return reservation;
+    }
+
+    /**
+     * Turns the hold into a confirmed reservation; its seats are already taken.
+     */
+    Optional<Reservation> confirm(UUID reservationId) {
+        Hold hold = remove(reservationId);
+        if (hold == null) {
+            return Optional.empty();
+        }
+        Reservation reservation = hold.reservation;
+        seatInventory.confirmHold(reservation.getCategory().getCategoryId(), reservation.getQuantity());
+        reservation.confirmHold();
+        return Optional.of(reservation);
+    }
+
+    boolean release(UUID reservationId) {
+        Hold hold = remove(reservationId);
+        if (hold == null) {
+            return false;
+        }
+        releaseSeats(hold);
+        return true;
+    }
+
+    Optional<Reservation> get(UUID reservationId) {
+        Hold hold = holds.get(reservationId);
+        return hold == null ? Optional.empty() : Optional.of(hold.reservation);
+    }
+
+    int size() {
+        return holds.size();
+    }
+
+    long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+    }
+
+    private Hold remove(UUID reservationId) {
+        Hold hold = holds.remove(reservationId);
+        if (hold != null) {
+            synchronized (timers) {
+                if (hold.timeout != null) {
+                    hold.timeout.cancel();
+                }
+            }
+        }
+        return hold;
+    }
+
+    private void expire() {
+        List<UUID> due;
+        synchronized (timers) {
+            due = timers.advance(System.currentTimeMillis());
+        }
+        for (UUID reservationId : due) {
+            // A confirm or release that got there first has already removed it
+            Hold hold = holds.remove(reservationId);
+            if (hold != null) {
+                releaseSeats(hold);
+                expired.increment();
+            }
+        }
+    }
+
+    private void releaseSeats(Hold hold) {
+        Reservation reservation = hold.reservation;
+        seatInventory.releaseHold(reservation.getCategory().getCategoryId(), reservation.getQuantity());
+        reservation.cancelReservation();
+    }
+
+    private static final class Hold {
+        private final Reservation reservation;
+        private TimerWheel.Timeout<UUID> timeout;
+
+        private Hold(Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.TicketCategory;
+import com.ticketsystem.repository.ITicketCategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory seat inventory. Remaining tickets per category are kept in CAS-updated
+ * counters so reservations can be decided without a database round-trip, and every change
+ * is published through an {@link AvailabilityFeed}.
+ */
+public class SeatInventory implements AutoCloseable {
+    private final ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository;
+    private final AvailabilityTable table = new AvailabilityTable();
+    private final AvailabilityFeed feed = new AvailabilityFeed(table, AvailabilityFeed.DEFAULT_TICK);
+
+    public SeatInventory(ITicketCategoryRepository<TicketCategory, UUID> ticketCategoryRepository) {
+        this.ticketCategoryRepository = ticketCategoryRepository;
+    }
+
+    /**
+     * Returns the category for the given id, loading its remaining count from the
+     * database the first time it is requested.
+     */
+    public Optional<TicketCategory> getCategory(UUID categoryId) {
+        int slot = slot(categoryId);
+        return slot < 0 ? Optional.empty() : Optional.of(table.category(slot));
+    }
+
+    /**
+     * True when the category is already in memory, so {@link #getCategory} returns without
+     * touching the database.
+     */
+    boolean isLoaded(UUID categoryId) {
+        return table.find(categoryId) >= 0;
+    }
+
+    public boolean tryReserve(UUID categoryId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int slot = slot(categoryId);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Ticket category not found");
+        }
+        if (!table.tryTake(slot, quantity)) {
+            return false;
+        }
+        feed.changed(slot);
+        return true;
+    }
+
+    /**
+     * Takes the tickets of every line, or of none when one cannot be covered. Lines taken
+     * before the one that fails are given back, so others may briefly see them gone.
+     */
+    public boolean tryReserveAll(List<OrderLine> lines) {
+        int taken = 0;
+        try {
+            while (taken < lines.size() && tryReserve(lines.get(taken).categoryId(), lines.get(taken).quantity())) {
+                taken++;
+            }
+        } finally {
+            if (taken < lines.size()) {
+                releaseAll(lines.subList(0, taken));
+            }
+        }
+        return taken == lines.size();
+    }
+
+    /**
+     * Takes tickets like {@link #tryReserve} but counts them as held until the hold is
+     * confirmed or released.
+     */
+    public boolean tryHold(UUID categoryId, int quantity) {
+        if (!tryReserve(categoryId, quantity)) {
+            return false;
+        }
+        table.addHeld(table.find(categoryId), quantity);
+        return true;
+    }
+
+    public void confirmHold(UUID categoryId, int quantity) {
+        int slot = slot(categoryId);
+        if (slot >= 0) {
+            table.addHeld(slot, -quantity);
+        }
+    }
+
+    public void releaseHold(UUID categoryId, int quantity) {
+        int slot = slot(categoryId);
+        if (slot >= 0) {
+            table.addHeld(slot, -quantity);
+            table.addAvailable(slot, quantity);
+            feed.changed(slot);
+        }
+    }
+
+    public int getHeldTickets(UUID categoryId) {
+        int slot = table.find(categoryId);
+        return slot < 0 ? 0 : table.held(slot);
+    }
+
+    public void release(UUID categoryId, int quantity) {
+        int slot = slot(categoryId);
+        if (slot >= 0) {
+            table.addAvailable(slot, quantity);
+            feed.changed(slot);
+        }
+    }
+
+    /**
+     * Takes tickets whether or not enough are left, for seats the database still counts as sold
+     * after the inventory gave them back. Availability may stay below zero until they return.
+     */
+    public void take(UUID categoryId, int quantity) {
+        int slot = slot(categoryId);
+        if (slot >= 0) {
+            table.addAvailable(slot, -quantity);
+            feed.changed(slot);
+        }
+    }
+
+    public void releaseAll(List<OrderLine> lines) {
+        for (OrderLine line : lines) {
+            release(line.categoryId(), line.quantity());
+        }
+    }
+
+    /**
+     * Makes a category saved after its event was loaded part of the event's scans. Subscriptions
+     * to the event pick it up without this.
+     */
+    public void addCategory(TicketCategory category) {
+        if (category.getEventId() == null) {
+            throw new IllegalArgumentException("Ticket category has no event");
+        }
+        table.addToEvent(category.getEventId(), category);
+    }
+
+    public int getAvailableTickets(UUID categoryId) {
+        int slot = slot(categoryId);
+        return slot < 0 ? 0 : table.available(slot);
+    }
+
+    /**
+     * Calls the visitor for each category of the event with its live counts, loading the
+     * event's categories the first time. Nothing is allocated per category.
+     */
+    public void forEachCategory(UUID eventId, CategoryVisitor visitor) {
+        for (int slot : table.slotsOf(eventId, ticketCategoryRepository::findAllByEvent)) {
+            visitor.visit(table.category(slot), table.available(slot), table.priceCents(slot));
+        }
+    }
+
+    /**
+     * Totals the event's remaining tickets and finds its cheapest category that still has some.
+     */
+    public EventAvailability getEventAvailability(UUID eventId) {
+        int available = 0;
+        long lowestPriceCents = -1;
+        for (int slot : table.slotsOf(eventId, ticketCategoryRepository::findAllByEvent)) {
+            int remaining = table.available(slot);
+            if (remaining > 0) {
+                available += remaining;
+                long priceCents = table.priceCents(slot);
+                if (lowestPriceCents < 0 || priceCents < lowestPriceCents) {
+                    lowestPriceCents = priceCents;
+                }
+            }
+        }
+        return new EventAvailability(available, lowestPriceCents);
+    }
+
+    /**
+     * Subscribes to changes of the event's categories, or of every category when
+     * {@code eventId} is null. Read the current counts after subscribing, e.g. with
+     * {@link #forEachCategory}, and apply the changes on top.
+     */
+    public AvailabilityFeed.Subscription subscribe(UUID eventId) {
+        return feed.subscribe(eventId);
+    }
+
+    @Override
+    public void close() {
+        feed.close();
+    }
+
+    private int slot(UUID categoryId) {
+        return table.findOrLoad(categoryId, id -> ticketCategoryRepository.findById(id).orElse(null));
+    }
+
+    @FunctionalInterface
+    public interface CategoryVisitor {
+        void visit(TicketCategory category, int availableTickets, long priceCents);
+    }
+}
@@ -0,0 +1,236 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Connection to one shard node. Requests are synchronous; concurrent callers each take their
+ * own socket from a small pool, so a slow request never blocks another caller's.
+ *
+ * <p>A node that does not answer within 15 seconds fails the call. When a call
+ * fails after its request was sent, the node may still have applied it. Only {@link #reserve}
+ * can be retried safely, by resending the same idempotency key. A lost hold lapses on its own.
+ * An order should be checked against the user's reservations before it is placed again.
+ */
+public class ShardClient implements AutoCloseable {
+    private static final int MAX_IDLE_CONNECTIONS = 64;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+    // Longer than a node may wait to append to a full journal, so a slow answer is not taken for a lost one
+    private static final int READ_TIMEOUT_MILLIS = 15_000;
+
+    private final String nodeId;
+    private final InetSocketAddress address;
+    private final Function<UUID, Event> events;
+    private final ConcurrentLinkedDeque<Channel> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param events resolves the events of reservations returned by the node
+     */
+    public ShardClient(String nodeId, InetSocketAddress address, Function<UUID, Event> events) {
+        this.nodeId = nodeId;
+        this.address = address;
+        this.events = events;
+    }
+
+    public Reservation reserve(UUID eventId, UUID categoryId, int quantity, UUID userId) {
+        return reserve(eventId, categoryId, quantity, userId, null);
+    }
+
+    /**
+     * Reserves on the node, which deduplicates by the idempotency key when one is given.
+     */
+    public Reservation reserve(UUID eventId, UUID categoryId, int quantity, UUID userId, String idempotencyKey) {
+        return call(out -> {
+            out.writeByte(ShardProtocol.RESERVE);
+            ShardProtocol.writeId(out, eventId);
+            ShardProtocol.writeId(out, categoryId);
+            out.writeInt(quantity);
+            ShardProtocol.writeId(out, userId);
+            out.writeBoolean(idempotencyKey != null);
+            if (idempotencyKey != null) {
+                out.writeUTF(idempotencyKey);
+            }
+        }, in -> ShardProtocol.readReservation(in, events));
+    }
+
+    /**
+     * Not idempotent: after a failure the hold may exist on the node and lapses at its expiry.
+     */
+    public Reservation hold(UUID eventId, UUID categoryId, int quantity, UUID userId, Duration ttl) {
+        return call(out -> {
+            out.writeByte(ShardProtocol.HOLD);
+            ShardProtocol.writeId(out, eventId);
+            ShardProtocol.writeId(out, categoryId);
+            out.writeInt(quantity);
+            ShardProtocol.writeId(out, userId);
+            out.writeLong(ttl.toMillis());
+        }, in -> ShardProtocol.readReservation(in, events));
+    }
+
+    public Optional<Reservation> confirmHold(UUID reservationId) {
+        return Optional.ofNullable(call(out -> {
+            out.writeByte(ShardProtocol.CONFIRM_HOLD);
+            ShardProtocol.writeId(out, reservationId);
+        }, in -> ShardProtocol.readReservation(in, events)));
+    }
+
+    public Optional<Reservation> findHold(UUID reservationId) {
+        return Optional.ofNullable(call(out -> {
+            out.writeByte(ShardProtocol.FIND_HOLD);
+            ShardProtocol.writeId(out, reservationId);
+        }, in -> ShardProtocol.readReservation(in, events)));
+    }
+
+    /**
+     * Not idempotent: after a failure the order may have been placed on the node.
+     */
+    public ReservationOrder order(UUID eventId, List<OrderLine> lines, UUID userId) {
+        return call(out -> {
+            out.writeByte(ShardProtocol.ORDER);
+            ShardProtocol.writeId(out, eventId);
+            ShardProtocol.writeId(out, userId);
+            out.writeInt(lines.size());
+            for (OrderLine line : lines) {
+                ShardProtocol.writeId(out, line.categoryId());
+                out.writeInt(line.quantity());
+            }
+        }, in -> ShardProtocol.readOrder(in, events));
+    }
+
+    /**
+     * Returns false when the node holds no such reservation.
+     */
+    public boolean cancel(UUID reservationId) {
+        return call(out -> {
+            out.writeByte(ShardProtocol.CANCEL);
+            ShardProtocol.writeId(out, reservationId);
+        }, in -> Boolean.TRUE) != null;
+    }
+
+    public int getAvailableTickets(UUID categoryId) {
+        Integer available = call(out -> {
+            out.writeByte(ShardProtocol.AVAILABLE);
+            ShardProtocol.writeId(out, categoryId);
+        }, DataInputStream::readInt);
+        return available == null ? 0 : available;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Channel channel;
+        while ((channel = idle.pollFirst()) != null) {
+            channel.close();
+        }
+    }
+
+    // Returns null for NOT_FOUND; other failures surface as the exception the node threw
+    private <T> T call(RequestWriter request, ResponseReader<T> response) {
+        Channel channel = borrow();
+        boolean sent = false;
+        try {
+            request.write(channel.out);
+            channel.out.flush();
+            sent = true;
+            byte status = channel.in.readByte();
+            T result = switch (status) {
+                case ShardProtocol.OK -> response.read(channel.in);
+                case ShardProtocol.NOT_FOUND -> null;
+                case ShardProtocol.INVALID -> throw new IllegalArgumentException(channel.in.readUTF());
+                case ShardProtocol.UNSUPPORTED -> throw new IllegalStateException(channel.in.readUTF());
+                default -> throw new RuntimeException("Shard node " + nodeId + " failed: " + channel.in.readUTF());
+            };
+            giveBack(channel);
+            return result;
+        } catch (IOException e) {
+            // A timed-out connection is out of step with the node, so it is never reused
+            channel.close();
+            if (sent) {
+                throw new RuntimeException("Shard node " + nodeId + " at " + address
+                        + " did not answer; the request may have been applied", e);
+            }
+            throw new RuntimeException("Shard node " + nodeId + " at " + address + " is unreachable", e);
+        } catch (RuntimeException e) {
+            // The response was read completely, so the connection is still usable
+            giveBack(channel);
+            throw e;
+        }
+    }
+
+    private Channel borrow() {
+        Channel channel = idle.pollFirst();
+        if (channel != null) {
+            idleCount.decrementAndGet();
+            return channel;
+        }
+        try {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            return new Channel(socket);
+        } catch (IOException e) {
+            throw new RuntimeException("Shard node " + nodeId + " at " + address + " is unreachable", e);
+        }
+    }
+
+    private void giveBack(Channel channel) {
+        if (closed || idleCount.incrementAndGet() > MAX_IDLE_CONNECTIONS) {
+            idleCount.decrementAndGet();
+            channel.close();
+            return;
+        }
+        idle.offerFirst(channel);
+    }
+
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static final class Channel {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Channel(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Wire format between shard nodes. A request is an op code followed by its fields; a response
+ * is a status code followed by a reservation, an order, a count or an error message.
+ */
+final class ShardProtocol {
+    static final byte RESERVE = 1;
+    static final byte HOLD = 2;
+    static final byte CONFIRM_HOLD = 3;
+    static final byte CANCEL = 4;
+    static final byte AVAILABLE = 5;
+    static final byte FIND_HOLD = 6;
+    static final byte ORDER = 7;
+
+    static final byte OK = 0;
+    static final byte NOT_FOUND = 1;
+    static final byte INVALID = 2;
+    static final byte UNSUPPORTED = 3;
+    static final byte FAILED = 4;
+
+    private ShardProtocol() {
+    }
+
+    static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        }
+    }
+
+    static UUID readId(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    static void writeReservation(DataOutputStream out, Reservation reservation) throws IOException {
+        writeId(out, reservation.getReservationId());
+        writeId(out, reservation.getEvent().getEventId());
+        TicketCategory category = reservation.getCategory();
+        writeId(out, category.getCategoryId());
+        out.writeUTF(category.getName());
+        out.writeLong(category.getPriceCents());
+        out.writeInt(reservation.getQuantity());
+        writeTime(out, reservation.getReservationDate());
+        out.writeUTF(reservation.getStatus());
+        writeId(out, reservation.getUserId());
+        out.writeBoolean(reservation.getHoldExpiresAt() != null);
+        if (reservation.getHoldExpiresAt() != null) {
+            writeTime(out, reservation.getHoldExpiresAt());
+        }
+    }
+
+    /**
+     * Rebuilds a reservation made on another node, resolving its event locally.
+     */
+    static Reservation readReservation(DataInputStream in, Function<UUID, Event> events) throws IOException {
+        UUID reservationId = readId(in);
+        UUID eventId = readId(in);
+        TicketCategory category = new TicketCategory(readId(in), in.readUTF(), in.readLong());
+        int quantity = in.readInt();
+        LocalDateTime reservationDate = readTime(in);
+        String status = in.readUTF();
+        UUID userId = readId(in);
+        LocalDateTime holdExpiresAt = in.readBoolean() ? readTime(in) : null;
+        // Resolved only after the whole response is read, so a failed lookup leaves the stream intact
+        Event event = events.apply(eventId);
+        category.setEvent(event);
+        return new Reservation(reservationId, event, category, quantity, reservationDate, status, userId, holdExpiresAt);
+    }
+
+    static void writeOrder(DataOutputStream out, ReservationOrder order) throws IOException {
+        writeId(out, order.orderId());
+        writeId(out, order.eventId());
+        out.writeInt(order.reservations().size());
+        for (Reservation reservation : order.reservations()) {
+            writeReservation(out, reservation);
+        }
+    }
+
+    static ReservationOrder readOrder(DataInputStream in, Function<UUID, Event> events) throws IOException {
+        UUID orderId = readId(in);
+        UUID eventId = readId(in);
+        int count = in.readInt();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reservations.add(readReservation(in, events));
+        }
+        return new ReservationOrder(orderId, eventId, reservations);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
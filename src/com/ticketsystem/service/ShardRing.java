@@ -0,0 +1,70 @@
+package com.ticketsystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consistent-hash ring that assigns every event to one node. Each node is placed on the ring
+ * many times so partitions stay even, and adding or removing a node only moves the events of
+ * the ring segments it gains or loses. Every node must be built from the same node ids.
+ */
+public final class ShardRing {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final long[] tokens;
+    private final String[] owners;
+    private final List<String> nodeIds;
+
+    public ShardRing(Collection<String> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("Shard ring needs at least one node");
+        }
+        this.nodeIds = List.copyOf(nodeIds);
+        long[][] points = new long[this.nodeIds.size() * VIRTUAL_NODES][];
+        int index = 0;
+        for (int node = 0; node < this.nodeIds.size(); node++) {
+            for (int replica = 0; replica < VIRTUAL_NODES; replica++) {
+                points[index++] = new long[]{hash(this.nodeIds.get(node) + "#" + replica), node};
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        this.tokens = new long[points.length];
+        this.owners = new String[points.length];
+        for (int i = 0; i < points.length; i++) {
+            tokens[i] = points[i][0];
+            owners[i] = this.nodeIds.get((int) points[i][1]);
+        }
+    }
+
+    public String ownerOf(UUID eventId) {
+        long key = mix(eventId.getMostSignificantBits() ^ mix(eventId.getLeastSignificantBits()));
+        int index = Arrays.binarySearch(tokens, key);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == tokens.length ? 0 : index];
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    // 64-bit FNV-1a with a finalizer so the virtual nodes spread evenly over the ring
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
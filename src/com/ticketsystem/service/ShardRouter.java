@@ -0,0 +1,77 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Event;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Decides which node owns an event and keeps a client for every other node. Built from the
+ * same node list on every node, so they all agree on the owners.
+ */
+public class ShardRouter implements AutoCloseable {
+    private final String selfId;
+    private final InetSocketAddress selfAddress;
+    private final ShardRing ring;
+    private final Map<String, ShardClient> peers = new LinkedHashMap<>();
+
+    public ShardRouter(String selfId, Map<String, InetSocketAddress> nodes, Function<UUID, Event> events) {
+        if (!nodes.containsKey(selfId)) {
+            throw new IllegalArgumentException("Node " + selfId + " is not part of the shard list");
+        }
+        this.selfId = selfId;
+        this.selfAddress = nodes.get(selfId);
+        this.ring = new ShardRing(nodes.keySet());
+        nodes.forEach((nodeId, address) -> {
+            if (!nodeId.equals(selfId)) {
+                peers.put(nodeId, new ShardClient(nodeId, address, events));
+            }
+        });
+    }
+
+    /**
+     * Parses a node list such as {@code a=127.0.0.1:7001,b=127.0.0.1:7002}.
+     */
+    public static Map<String, InetSocketAddress> parseNodes(String spec) {
+        Map<String, InetSocketAddress> nodes = new LinkedHashMap<>();
+        for (String node : spec.split(",")) {
+            String[] idAndAddress = node.trim().split("=", 2);
+            int colon = idAndAddress.length == 2 ? idAndAddress[1].lastIndexOf(':') : -1;
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected id=host:port but got: " + node);
+            }
+            nodes.put(idAndAddress[0], new InetSocketAddress(idAndAddress[1].substring(0, colon),
+                    Integer.parseInt(idAndAddress[1].substring(colon + 1))));
+        }
+        return nodes;
+    }
+
+    public boolean isLocal(UUID eventId) {
+        return ring.ownerOf(eventId).equals(selfId);
+    }
+
+    ShardClient clientFor(UUID eventId) {
+        return peers.get(ring.ownerOf(eventId));
+    }
+
+    Collection<ShardClient> peers() {
+        return peers.values();
+    }
+
+    public String getSelfId() {
+        return selfId;
+    }
+
+    public InetSocketAddress getSelfAddress() {
+        return selfAddress;
+    }
+
+    @Override
+    public void close() {
+        peers.values().forEach(ShardClient::close);
+    }
+}
@@ -0,0 +1,180 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Reservation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the inventory this node owns to the other shard nodes. Each connection is handled on
+ * its own virtual thread and carries one request at a time.
+ */
+public class ShardServer implements AutoCloseable {
+    private final ReservationService reservationService;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread acceptor;
+
+    public ShardServer(ReservationService reservationService, InetSocketAddress address) throws IOException {
+        this.reservationService = reservationService;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address, 1024);
+        this.acceptor = new Thread(this::acceptLoop, "shard-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                handle(op, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Peer went away mid-request; it will reconnect
+        }
+    }
+
+    // Reads the whole request before running it, so a failed call leaves the stream in step
+    private void handle(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        Call call = switch (op) {
+            case ShardProtocol.RESERVE -> {
+                UUID eventId = ShardProtocol.readId(in);
+                UUID categoryId = ShardProtocol.readId(in);
+                int quantity = in.readInt();
+                UUID userId = ShardProtocol.readId(in);
+                String idempotencyKey = in.readBoolean() ? in.readUTF() : null;
+                yield () -> Optional.of(reservationService.reserveLocally(eventId, categoryId, quantity, userId,
+                        idempotencyKey));
+            }
+            case ShardProtocol.HOLD -> {
+                UUID eventId = ShardProtocol.readId(in);
+                UUID categoryId = ShardProtocol.readId(in);
+                int quantity = in.readInt();
+                UUID userId = ShardProtocol.readId(in);
+                Duration ttl = Duration.ofMillis(in.readLong());
+                yield () -> Optional.of(reservationService.holdLocally(eventId, categoryId, quantity, userId, ttl));
+            }
+            case ShardProtocol.ORDER -> {
+                UUID eventId = ShardProtocol.readId(in);
+                UUID userId = ShardProtocol.readId(in);
+                int count = in.readInt();
+                if (count < 0 || count > ReservationService.MAX_ORDER_LINES) {
+                    throw new IOException("Order with " + count + " lines");
+                }
+                List<OrderLine> lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(new OrderLine(ShardProtocol.readId(in), in.readInt()));
+                }
+                yield () -> Optional.of(reservationService.orderLocally(eventId, lines, userId));
+            }
+            case ShardProtocol.CONFIRM_HOLD -> {
+                UUID reservationId = ShardProtocol.readId(in);
+                yield () -> reservationService.confirmHoldLocally(reservationId);
+            }
+            case ShardProtocol.FIND_HOLD -> {
+                UUID reservationId = ShardProtocol.readId(in);
+                yield () -> reservationService.findHoldLocally(reservationId);
+            }
+            case ShardProtocol.CANCEL -> {
+                UUID reservationId = ShardProtocol.readId(in);
+                yield () -> reservationService.cancelLocally(reservationId) ? Optional.of(Boolean.TRUE) : Optional.empty();
+            }
+            case ShardProtocol.AVAILABLE -> {
+                UUID categoryId = ShardProtocol.readId(in);
+                yield () -> Optional.of(reservationService.getLocalAvailableTickets(categoryId));
+            }
+            default -> throw new IOException("Unknown shard op " + op);
+        };
+
+        Optional<?> result;
+        try {
+            result = call.run();
+        } catch (IllegalArgumentException e) {
+            writeError(out, ShardProtocol.INVALID, e);
+            return;
+        } catch (IllegalStateException e) {
+            writeError(out, ShardProtocol.UNSUPPORTED, e);
+            return;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            writeError(out, ShardProtocol.FAILED, e);
+            return;
+        }
+
+        if (result.isEmpty()) {
+            out.writeByte(ShardProtocol.NOT_FOUND);
+            return;
+        }
+        out.writeByte(ShardProtocol.OK);
+        Object value = result.get();
+        if (value instanceof Reservation reservation) {
+            ShardProtocol.writeReservation(out, reservation);
+        } else if (value instanceof ReservationOrder order) {
+            ShardProtocol.writeOrder(out, order);
+        } else if (value instanceof Integer count) {
+            out.writeInt(count);
+        }
+    }
+
+    private static void writeError(DataOutputStream out, byte status, RuntimeException e) throws IOException {
+        out.writeByte(status);
+        out.writeUTF(String.valueOf(e.getMessage()));
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Optional<?> run();
+    }
+}
@@ -0,0 +1,197 @@
+package com.ticketsystem.service;
+
+import com.ticketsystem.model.Event;
+import com.ticketsystem.model.Reservation;
+import com.ticketsystem.model.TicketCategory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reservation history per user, loaded from the repository once and then kept current as this
+ * node creates and cancels reservations. Entries hold quantity, status and references to events
+ * and categories shared between all histories, so a user's history costs a few dozen bytes per
+ * reservation. The shared instances are looked up weakly, so they go once no cached history or
+ * other cache refers to them. Only correct while this node is the sole writer.
+ */
+class UserReservationCache {
+    private static final int DEFAULT_MAX_USERS = 10_000;
+
+    private final int maxUsers;
+    private final LinkedHashMap<UUID, History> users;
+    private final Latest<Event> events = new Latest<>();
+    private final Latest<TicketCategory> categories = new Latest<>();
+
+    UserReservationCache() {
+        this(DEFAULT_MAX_USERS);
+    }
+
+    UserReservationCache(int maxUsers) {
+        this.maxUsers = maxUsers;
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, History> eldest) {
+                return size() > UserReservationCache.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Returns the user's reservations, loading them with the loader the first time.
+     */
+    List<Reservation> get(UUID userId, Function<UUID, List<Reservation>> loader) {
+        History history = history(userId);
+        if (!history.loaded) {
+            // Changes recorded from here on land in the history and win over the loaded rows
+            List<Reservation> loaded = loader.apply(userId);
+            synchronized (history) {
+                if (!history.loaded) {
+                    LinkedHashMap<UUID, Entry> merged = new LinkedHashMap<>();
+                    for (Reservation reservation : loaded) {
+                        if (!history.entries.containsKey(reservation.getReservationId())) {
+                            merged.put(reservation.getReservationId(), entryOf(reservation, false));
+                        }
+                    }
+                    merged.putAll(history.entries);
+                    history.entries = merged;
+                    history.loaded = true;
+                }
+            }
+        }
+        synchronized (history) {
+            List<Reservation> reservations = new ArrayList<>(history.entries.size());
+            for (Entry entry : history.entries.values()) {
+                Event event = events.resolve(entry.event.getEventId(), entry.event);
+                TicketCategory category = categories.resolve(entry.category.getCategoryId(), entry.category);
+                reservations.add(new Reservation(entry.reservationId, event, category, entry.quantity,
+                        entry.reservationDate, entry.status, userId));
+            }
+            return reservations;
+        }
+    }
+
+    /**
+     * Records a reservation that was just created or confirmed, or just cancelled.
+     */
+    void record(Reservation reservation) {
+        if (reservation.getUserId() == null) {
+            return;
+        }
+        Entry entry = entryOf(reservation, true);
+        History history = history(reservation.getUserId());
+        synchronized (history) {
+            history.entries.put(entry.reservationId, entry);
+        }
+    }
+
+    /**
+     * Removes a reservation that turned out never to have been stored.
+     */
+    void forget(UUID userId, UUID reservationId) {
+        if (userId == null) {
+            return;
+        }
+        History history;
+        synchronized (users) {
+            history = users.get(userId);
+        }
+        if (history != null) {
+            synchronized (history) {
+                history.entries.remove(reservationId);
+            }
+        }
+    }
+
+    private History history(UUID userId) {
+        synchronized (users) {
+            return users.computeIfAbsent(userId, id -> new History());
+        }
+    }
+
+    // The latest instances replace the shared ones so changes to an event show in every history
+    private Entry entryOf(Reservation reservation, boolean latest) {
+        Event event = reservation.getEvent();
+        TicketCategory category = reservation.getCategory();
+        if (latest) {
+            events.publish(event.getEventId(), event);
+            categories.publish(category.getCategoryId(), category);
+        } else {
+            event = events.share(event.getEventId(), event);
+            category = categories.share(category.getCategoryId(), category);
+        }
+        return new Entry(reservation.getReservationId(), event, category, reservation.getQuantity(),
+                reservation.getReservationDate(), reservation.getStatus().intern());
+    }
+
+    private record Entry(UUID reservationId, Event event, TicketCategory category, int quantity,
+                         LocalDateTime reservationDate, String status) {
+    }
+
+    /**
+     * Newest instance seen per id, held weakly. Entries keep their own instance alive, so an id
+     * stays here while some history still refers to it and is purged once it is collected.
+     */
+    private static final class Latest<T> {
+        private final Map<UUID, IdReference<T>> byId = new ConcurrentHashMap<>();
+        private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+        void publish(UUID id, T value) {
+            purge();
+            byId.put(id, new IdReference<>(id, value, collected));
+        }
+
+        // Returns the live instance for the id, registering the given one when there is none
+        T share(UUID id, T value) {
+            purge();
+            while (true) {
+                IdReference<T> current = byId.get(id);
+                T live = current == null ? null : current.get();
+                if (live != null) {
+                    return live;
+                }
+                IdReference<T> registered = new IdReference<>(id, value, collected);
+                if (current == null ? byId.putIfAbsent(id, registered) == null : byId.replace(id, current, registered)) {
+                    return value;
+                }
+            }
+        }
+
+        T resolve(UUID id, T fallback) {
+            IdReference<T> current = byId.get(id);
+            T live = current == null ? null : current.get();
+            return live != null ? live : fallback;
+        }
+
+        private void purge() {
+            Reference<? extends T> cleared;
+            while ((cleared = collected.poll()) != null) {
+                IdReference<?> reference = (IdReference<?>) cleared;
+                byId.remove(reference.id, reference);
+            }
+        }
+    }
+
+    private static final class IdReference<T> extends WeakReference<T> {
+        private final UUID id;
+
+        private IdReference(UUID id, T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.id = id;
+        }
+    }
+
+    private static final class History {
+        // In booking order; guarded by this History
+        private LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>();
+        private volatile boolean loaded;
+    }
+}
@@ -1,62 +1,242 @@
 package com.ticketsystem.service;
 
 import com.ticketsystem.model.User;
-import com.ticketsystem.repository.UserRepository;
+import com.ticketsystem.repository.IUserRepository;
+import com.ticketsystem.util.MethodStats;
+import com.ticketsystem.util.PasswordHasher;
+import com.ticketsystem.util.MetricsRegistry;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Service class to handle user-related operations.
+ * Service class to handle user-related operations. Password hashing is CPU-bound, so it runs on
+ * a small pool sized to the cores instead of on the calling request thread; when that pool's
+ * queue is full, logins are refused with a {@link java.util.concurrent.RejectedExecutionException}.
+ * The {@code ...Async} methods run on the async executor, a virtual thread per call unless configured.
  */
 public class UserService {
-    private final UserRepository userRepository;
+    private static final int HASHING_QUEUE_PER_THREAD = 32;
+    // Checked against when the username is unknown, so that costs as much as a wrong password
+    private static final String DUMMY_HASH = PasswordHasher.hash(UUID.randomUUID().toString());
 
-    public UserService(UserRepository userRepository) {
+    private static final MethodStats REGISTER_USER = MetricsRegistry.global().stats("UserService.registerUser");
+    private static final MethodStats LOGIN = MetricsRegistry.global().stats("UserService.login");
+    private static final MethodStats GET_USER_BY_USERNAME =
+            MetricsRegistry.global().stats("UserService.getUserByUsername");
+    private static final MethodStats GET_USER_BY_ID = MetricsRegistry.global().stats("UserService.getUserById");
+    private static final MethodStats GET_ALL_USERS = MetricsRegistry.global().stats("UserService.getAllUsers");
+    private static final MethodStats UPDATE_PASSWORD = MetricsRegistry.global().stats("UserService.updatePassword");
+
+    private final IUserRepository<User, UUID> userRepository;
+    private final CredentialCache credentials = new CredentialCache();
+    private final ExecutorService hashingExecutor;
+    private final Executor asyncExecutor;
+
+    public UserService(IUserRepository<User, UUID> userRepository) {
+        this(userRepository, newHashingExecutor());
+    }
+
+    public UserService(IUserRepository<User, UUID> userRepository, ExecutorService hashingExecutor) {
+        this(userRepository, hashingExecutor, AsyncExecutors.virtualThreads("user-service"));
+    }
+
+    public UserService(IUserRepository<User, UUID> userRepository, ExecutorService hashingExecutor,
+                       Executor asyncExecutor) {
         this.userRepository = userRepository;
+        this.hashingExecutor = hashingExecutor;
+        this.asyncExecutor = asyncExecutor;
     }
 
     public User registerUser(String username, String password, String role) {
-        if (getUserByUsername(username).isPresent()) {
-            throw new IllegalArgumentException("Username already exists");
+        long startNanos = System.nanoTime();
+        try {
+            if (getUserByUsername(username).isPresent()) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+
+            User user = onHashingThread(() -> new User(username, password, role));
+            userRepository.save(user);
+            return user;
+        } catch (RuntimeException e) {
+            REGISTER_USER.recordError();
+            throw e;
+        } finally {
+            REGISTER_USER.record(startNanos);
         }
+    }
 
-        User user = new User(username, password, role);
-        userRepository.save(user);
-        return user;
+    /**
+     * Asynchronous {@link #registerUser}. The password is hashed while the username is checked,
+     * so the hash is wasted when the name turns out to be taken.
+     */
+    public CompletableFuture<User> registerUserAsync(String username, String password, String role) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<User> hashed = CompletableFuture.supplyAsync(
+                () -> onHashingThread(() -> new User(username, password, role)), asyncExecutor);
+        return CompletableFuture.supplyAsync(() -> getUserByUsername(username).isPresent(), asyncExecutor)
+                .thenCombine(hashed, (taken, user) -> {
+                    if (taken) {
+                        throw new IllegalArgumentException("Username already exists");
+                    }
+                    userRepository.save(user);
+                    return user;
+                })
+                .whenComplete((user, failure) -> {
+                    if (failure != null) {
+                        REGISTER_USER.recordError();
+                    }
+                    REGISTER_USER.record(startNanos);
+                });
     }
 
     public Optional<User> login(String username, String password) {
-        Optional<User> optionalUser = userRepository.findByUsername(username);
+        long startNanos = System.nanoTime();
+        try {
+            CredentialCache.Credential credential = credentials.get(username);
+            if (credential == null) {
+                Optional<User> optionalUser = userRepository.findByUsername(username);
+                if (optionalUser.isEmpty()) {
+                    onHashingThread(() -> PasswordHasher.verify(password, DUMMY_HASH));
+                    return Optional.empty();
+                }
+                credential = credentials.put(optionalUser.get());
+            }
 
-        if (optionalUser.isPresent() && optionalUser.get().verifyPassword(password)) {
-            return optionalUser;
+            User user = credential.getUser();
+            String stored = credential.getStoredHash();
+            if (!onHashingThread(() -> PasswordHasher.verify(password, stored))) {
+                return Optional.empty();
+            }
+            if (PasswordHasher.needsRehash(stored)) {
+                // Plaintext or weaker hash from before; replace it now that we have the password
+                User rehashed = onHashingThread(() -> new User(user.getUserId(), user.getUsername(),
+                        PasswordHasher.hash(password), user.getRole()));
+                userRepository.update(user.getUserId(), rehashed);
+                credentials.replace(credential, rehashed);
+                return Optional.of(rehashed);
+            }
+            return Optional.of(user);
+        } catch (RuntimeException e) {
+            LOGIN.recordError();
+            throw e;
+        } finally {
+            LOGIN.record(startNanos);
         }
+    }
 
-        else {
-            return Optional.empty();
-        }
+    public CompletableFuture<Optional<User>> loginAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> login(username, password), asyncExecutor);
     }
 
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        long startNanos = System.nanoTime();
+        try {
+            return userRepository.findByUsername(username);
+        } catch (RuntimeException e) {
+            GET_USER_BY_USERNAME.recordError();
+            throw e;
+        } finally {
+            GET_USER_BY_USERNAME.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<Optional<User>> getUserByUsernameAsync(String username) {
+        return CompletableFuture.supplyAsync(() -> getUserByUsername(username), asyncExecutor);
     }
 
     public User getUserById(UUID userId) {
-        return userRepository.findById(userId).orElse(null);
+        long startNanos = System.nanoTime();
+        try {
+            return userRepository.findById(userId).orElse(null);
+        } catch (RuntimeException e) {
+            GET_USER_BY_ID.recordError();
+            throw e;
+        } finally {
+            GET_USER_BY_ID.record(startNanos);
+        }
+    }
+
+    public CompletableFuture<User> getUserByIdAsync(UUID userId) {
+        return CompletableFuture.supplyAsync(() -> getUserById(userId), asyncExecutor);
     }
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        long startNanos = System.nanoTime();
+        try {
+            return userRepository.findAll();
+        } catch (RuntimeException e) {
+            GET_ALL_USERS.recordError();
+            throw e;
+        } finally {
+            GET_ALL_USERS.record(startNanos);
+        }
     }
 
     public boolean updatePassword(UUID userId, String oldPassword, String newPassword) {
-        User user = getUserById(userId);
-        if (user != null && user.verifyPassword(oldPassword)) {
-            user.setPassword(newPassword);
+        long startNanos = System.nanoTime();
+        try {
+            User user = getUserById(userId);
+            if (user == null || !onHashingThread(() -> user.verifyPassword(oldPassword))) {
+                return false;
+            }
+            // A new instance, so threads still reading the old user never see its hash change
+            User updated = onHashingThread(() -> new User(userId, user.getUsername(),
+                    PasswordHasher.hash(newPassword), user.getRole()));
+            userRepository.update(userId, updated);
+            credentials.invalidate(user.getUsername());
             return true;
+        } catch (RuntimeException e) {
+            UPDATE_PASSWORD.recordError();
+            throw e;
+        } finally {
+            UPDATE_PASSWORD.record(startNanos);
         }
-        return false;
     }
-} 
\ No newline at end of file
+
+    public CompletableFuture<Boolean> updatePasswordAsync(UUID userId, String oldPassword, String newPassword) {
+        return CompletableFuture.supplyAsync(() -> updatePassword(userId, oldPassword, newPassword), asyncExecutor);
+    }
+
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private <T> T onHashingThread(Callable<T> task) {
+        Future<T> result = hashingExecutor.submit(task);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ExecutorService newHashingExecutor() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * HASHING_QUEUE_PER_THREAD), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
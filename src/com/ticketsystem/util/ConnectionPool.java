@@ -0,0 +1,320 @@
+package com.ticketsystem.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool. Callers borrow a connection per operation and return it by
+ * closing it, so the repositories can be shared between request handler threads.
+ *
+ * <p>A connection held past the leak threshold is reported with the borrowing thread and time.
+ * Start with {@code -Dticketsystem.pool.leakTrace=true} to also get the stack of the borrow,
+ * which costs a captured stack trace on every borrow.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 5_000;
+    private static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final boolean LEAK_TRACE = Boolean.getBoolean("ticketsystem.pool.leakTrace");
+
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+    private final ScheduledExecutorService leakDetector;
+    private volatile boolean closed;
+
+    public ConnectionPool() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_WAIT_MILLIS, DEFAULT_LEAK_THRESHOLD_MILLIS, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param statementCacheSize prepared statements kept per connection; 0 disables the cache
+     */
+    public ConnectionPool(int maxSize, long maxWaitMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leakDetector.scheduleWithFixedDelay(this::detectLeaks, leakThresholdMillis, leakThresholdMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a validated connection, waiting at most the configured max wait time.
+     * Closing the returned connection hands it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            totalWaitNanos.add(System.nanoTime() - start);
+        }
+
+        try {
+            Connection physical = takeValidConnection();
+            Connection pooled = wrap(physical);
+            leases.put(pooled, new Lease(physical));
+            borrowCount.increment();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementEvictions.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum() + timeoutCount.sum();
+        return borrows == 0 ? 0 : totalWaitNanos.sum() / (borrows * 1_000_000.0);
+    }
+
+    public String getMetrics() {
+        return String.format("active=%d idle=%d total=%d max=%d waiting=%d borrows=%d timeouts=%d leaks=%d avgWaitMs=%.3f"
+                        + " stmtHits=%d stmtMisses=%d stmtEvictions=%d",
+                getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getWaitingCount(),
+                getBorrowCount(), getTimeoutCount(), getLeakCount(), getAverageWaitMillis(),
+                getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheEvictions());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        leakDetector.shutdownNow();
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private Connection takeValidConnection() throws SQLException {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (isValid(connection)) {
+                return connection;
+            }
+            closeQuietly(connection);
+        }
+        connection = DatabaseConnection.getConnection();
+        totalConnections.incrementAndGet();
+        if (statementCacheSize > 0) {
+            statementCaches.put(connection, new StatementCache(connection, statementCacheSize,
+                    statementHits, statementMisses, statementEvictions));
+        }
+        return connection;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection pooled) {
+        Lease lease = leases.remove(pooled);
+        if (lease == null) {
+            return;
+        }
+        Connection physical = lease.physical;
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (closed) {
+                closeQuietly(physical);
+            } else {
+                idle.offerFirst(physical);
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache statementCache = statementCaches.remove(connection);
+        try {
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.reported = true;
+                leakCount.increment();
+                System.err.println("Possible connection leak: connection held by " + lease.threadName
+                        + " since " + Instant.ofEpochMilli(lease.borrowedAt) + " (" + (now - lease.borrowedAt) + " ms)");
+                if (lease.borrowSite != null) {
+                    lease.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical, statementCaches.get(physical)));
+    }
+
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private boolean returned;
+
+        private PooledConnectionHandler(Connection physical, StatementCache statementCache) {
+            this.physical = physical;
+            this.statementCache = statementCache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release((Connection) proxy);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCache != null && method.getName().equals("prepareStatement") && args.length == 1) {
+                return statementCache.prepare((String) args[0]);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class Lease {
+        private final Connection physical;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String threadName = Thread.currentThread().getName();
+        // Only with leakTrace set: capturing the stack would cost every borrow
+        private final Exception borrowSite = LEAK_TRACE ? new Exception("Connection borrowed here") : null;
+        private volatile boolean reported;
+
+        private Lease(Connection physical) {
+            this.physical = physical;
+        }
+    }
+}
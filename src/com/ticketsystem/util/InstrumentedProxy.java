@@ -0,0 +1,65 @@
+package com.ticketsystem.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps an implementation of an interface so every call through the interface is timed and
+ * counted in the global {@link MetricsRegistry}. Stats are looked up once when the proxy is
+ * built; overloaded methods are told apart by their parameter count, e.g. {@code saveAll/2}.
+ */
+public final class InstrumentedProxy {
+    private InstrumentedProxy() {
+    }
+
+    /**
+     * @param type the interface to time, usually the one the callers hold the target as
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<? super T> type, T target, String name) {
+        Map<String, Integer> overloads = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            overloads.merge(method.getName(), 1, Integer::sum);
+        }
+        Map<Method, MethodStats> stats = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String methodName = overloads.get(method.getName()) > 1
+                    ? method.getName() + "/" + method.getParameterCount()
+                    : method.getName();
+            stats.put(method, MetricsRegistry.global().stats(name + "." + methodName));
+        }
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Handler(target, stats));
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Object target;
+        private final Map<Method, MethodStats> stats;
+
+        private Handler(Object target, Map<Method, MethodStats> stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodStats methodStats = stats.get(method);
+            if (methodStats == null) {
+                // equals, hashCode and toString
+                return method.invoke(target, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                methodStats.recordError();
+                throw e.getCause();
+            } finally {
+                methodStats.record(start);
+            }
+        }
+    }
+}
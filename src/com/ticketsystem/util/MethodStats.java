@@ -0,0 +1,70 @@
+package com.ticketsystem.util;
+
+import com.ticketsystem.util.management.MethodStatsMXBean;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency histogram of one method. Callers take
+ * {@code System.nanoTime()} before the call and hand it to {@link #record} in a finally block.
+ */
+public class MethodStats implements MethodStatsMXBean {
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    MethodStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanNanos() / 1_000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getValueAtPercentile(50) / 1_000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getValueAtPercentile(99) / 1_000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getValueAtPercentile(99.9) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMaxNanos() / 1_000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ticketsystem.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Named {@link MethodStats}, one per instrumented method, plus gauges read when rendered. Every
+ * method entry is also registered as an MXBean under {@code com.ticketsystem:type=Metrics}, and
+ * {@link #render()} produces the plain text served by the metrics endpoint.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry(true);
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] QUANTILES = {"0.5", "0.99", "0.999"};
+
+    private final ConcurrentSkipListMap<String, MethodStats> stats = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final boolean registerMBeans;
+
+    public MetricsRegistry() {
+        this(false);
+    }
+
+    private MetricsRegistry(boolean registerMBeans) {
+        this.registerMBeans = registerMBeans;
+    }
+
+    /**
+     * The registry the services and repositories record into.
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the stats for the given name, creating them on first use. Look them up once and
+     * keep the reference; the lookup is not meant for the hot path.
+     */
+    public MethodStats stats(String name) {
+        return stats.computeIfAbsent(name, key -> {
+            MethodStats created = new MethodStats(key);
+            if (registerMBeans) {
+                register(created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Publishes a value read on every render, e.g. a queue depth, as {@code ticketsystem_<name>}.
+     * Registering a name again replaces the earlier supplier.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Removes the gauge unless another supplier has replaced it since, so the owner of the value
+     * can let go of it when it closes.
+     */
+    public void removeGauge(String name, LongSupplier value) {
+        gauges.remove(name, value);
+    }
+
+    public Collection<MethodStats> getAll() {
+        return stats.values();
+    }
+
+    /**
+     * Renders every method as {@code name_metric{method="..."} value} lines, latencies in microseconds,
+     * followed by the gauges.
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        for (MethodStats method : stats.values()) {
+            String label = "{method=\"" + method.getName() + "\"}";
+            LatencyHistogram latency = method.getLatency();
+            out.append("ticketsystem_calls_total").append(label).append(' ').append(method.getCalls()).append('\n');
+            out.append("ticketsystem_errors_total").append(label).append(' ').append(method.getErrors()).append('\n');
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                out.append("ticketsystem_latency_micros{method=\"").append(method.getName())
+                        .append("\",quantile=\"").append(QUANTILES[i]).append("\"} ")
+                        .append(micros(latency.getValueAtPercentile(PERCENTILES[i]))).append('\n');
+            }
+            out.append("ticketsystem_latency_micros_max").append(label).append(' ')
+                    .append(micros(latency.getMaxNanos())).append('\n');
+        }
+        gauges.forEach((name, value) ->
+                out.append("ticketsystem_").append(name).append(' ').append(value.getAsLong()).append('\n'));
+        return out.toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000.0);
+    }
+
+    private static void register(MethodStats method) {
+        try {
+            ObjectName name = new ObjectName("com.ticketsystem:type=Metrics,name=" + ObjectName.quote(method.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(method, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
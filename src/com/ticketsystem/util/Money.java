@@ -0,0 +1,39 @@
+package com.ticketsystem.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices are whole cents in a {@code long}, so sums are exact and need no boxing. These helpers
+ * convert at the edges: user input, the database's decimal column, and display.
+ */
+public final class Money {
+    private Money() {
+    }
+
+    /**
+     * Parses an amount such as {@code "12.5"} or {@code "12.50"}; more than two decimals are rounded half up.
+     */
+    public static long parseCents(String amount) {
+        try {
+            return fromDecimal(new BigDecimal(amount.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+    }
+
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Formats as {@code 12.50}, without a currency symbol.
+     */
+    public static String format(long cents) {
+        return toDecimal(cents).toPlainString();
+    }
+}
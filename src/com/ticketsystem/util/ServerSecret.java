@@ -0,0 +1,58 @@
+package com.ticketsystem.util;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * The key this node signs and derives with, from {@code -Dticketsystem.session.secret}, at least
+ * 32 bytes in base64. Every node of a sharded deployment needs the same one, and whatever it
+ * signs survives a restart only with it. Without one a random key is used for the life of the
+ * process.
+ */
+public final class ServerSecret {
+    public static final int MIN_BYTES = 32;
+    private static final String PROPERTY = "ticketsystem.session.secret";
+
+    private static volatile byte[] key;
+
+    private ServerSecret() {
+    }
+
+    /**
+     * Returns a copy of the key, reading the property the first time.
+     */
+    public static byte[] get() {
+        byte[] current = key;
+        if (current == null) {
+            synchronized (ServerSecret.class) {
+                current = key;
+                if (current == null) {
+                    current = load();
+                    key = current;
+                }
+            }
+        }
+        return current.clone();
+    }
+
+    private static byte[] load() {
+        String configured = System.getProperty(PROPERTY);
+        if (configured == null) {
+            System.err.println(PROPERTY + " is not set; session tokens and idempotent reservation ids will not"
+                    + " survive a restart or be shared with other nodes");
+            byte[] secret = new byte[MIN_BYTES];
+            new SecureRandom().nextBytes(secret);
+            return secret;
+        }
+        byte[] secret;
+        try {
+            secret = Base64.getDecoder().decode(configured.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(PROPERTY + " must be base64", e);
+        }
+        if (secret.length < MIN_BYTES) {
+            throw new IllegalArgumentException(PROPERTY + " must be at least " + MIN_BYTES + " bytes");
+        }
+        return secret;
+    }
+}
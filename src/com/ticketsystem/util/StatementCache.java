@@ -0,0 +1,145 @@
+package com.ticketsystem.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text. Closing a
+ * statement handed out by the cache resets it and keeps it for the next caller, so the driver
+ * can reuse the server-side prepared plan instead of parsing the query again.
+ */
+final class StatementCache {
+    private final Connection connection;
+    private final int maxStatements;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    StatementCache(Connection connection, int maxStatements, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.connection = connection;
+        this.maxStatements = maxStatements;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * A connection is used by one thread at a time, so the cache itself needs no locking. If the
+     * cached statement for the SQL is still open (nested use), an uncached one is returned.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null) {
+            if (cached.inUse) {
+                return connection.prepareStatement(sql);
+            }
+            hits.increment();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        misses.increment();
+        cached = new CachedStatement(sql, connection.prepareStatement(sql));
+        statements.put(sql, cached);
+        evictIdleOverflow();
+        cached.inUse = true;
+        return cached.proxy;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    private void evictIdleOverflow() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > maxStatements && eldestFirst.hasNext()) {
+            CachedStatement cached = eldestFirst.next();
+            if (!cached.inUse) {
+                eldestFirst.remove();
+                closeQuietly(cached.statement);
+                evictions.increment();
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final class CachedStatement {
+        private final String sql;
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private ResultSet openResultSet;
+        private boolean inUse;
+
+        private CachedStatement(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (inUse) {
+                                    returnToCache();
+                                }
+                                return null;
+                            case "isClosed":
+                                return !inUse || statement.isClosed();
+                            default:
+                                break;
+                        }
+                        if (!inUse) {
+                            throw new SQLException("Statement has already been closed");
+                        }
+                        try {
+                            Object result = method.invoke(statement, args);
+                            if (result instanceof ResultSet rs) {
+                                openResultSet = rs;
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private void returnToCache() {
+            inUse = false;
+            try {
+                if (openResultSet != null) {
+                    openResultSet.close();
+                    openResultSet = null;
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.setFetchSize(0);
+            } catch (SQLException e) {
+                // A statement that cannot be reset is not safe to hand out again
+                statements.remove(sql);
+                closeQuietly(statement);
+            }
+        }
+    }
+}
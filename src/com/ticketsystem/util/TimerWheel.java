@@ -0,0 +1,147 @@
+package com.ticketsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel. Scheduling and cancelling are O(1); timers far in the future sit in
+ * coarser wheels and cascade down as time reaches them, so a sweep only touches timers that are
+ * due or about to be. Expiry is accurate to one tick. Not thread-safe on its own; callers
+ * serialize access.
+ */
+public class TimerWheel<T> {
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Timeout<T>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets = new Timeout[LEVELS][WHEEL_SIZE];
+        for (Timeout<T>[] level : buckets) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = Timeout.sentinel();
+            }
+        }
+    }
+
+    public Timeout<T> schedule(T value, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, value, deadlineMillis / tickMillis);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel up to the given time and returns the values whose deadline has passed.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timeout<T> head = buckets[0][(int) (currentTick & WHEEL_MASK)];
+            for (Timeout<T> timeout = head.next; timeout != head; timeout = head.next) {
+                timeout.unlink();
+                size--;
+                expired.add(timeout.value);
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // When a wheel wraps, the next slot of the wheel above is redistributed into the finer ones
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Timeout<T> head = buckets[level][(int) ((currentTick >>> shift) & WHEEL_MASK)];
+            for (Timeout<T> timeout = head.next; timeout != head; timeout = head.next) {
+                timeout.unlink();
+                insert(timeout);
+            }
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        // Due timers go to the next tick; timers beyond the top wheel are parked at its far end
+        long deadline = Math.max(timeout.deadlineTick, currentTick + 1);
+        long delay = Math.min(deadline - currentTick, MAX_DELAY_TICKS);
+        deadline = currentTick + delay;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        timeout.linkBefore(buckets[level][slot]);
+    }
+
+    /**
+     * Handle for a scheduled value; cancelling unlinks it from its bucket.
+     */
+    public static final class Timeout<T> {
+        private final TimerWheel<T> wheel;
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> prev = this;
+        private Timeout<T> next = this;
+
+        private Timeout(TimerWheel<T> wheel, T value, long deadlineTick) {
+            this.wheel = wheel;
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> sentinel() {
+            return new Timeout<>(null, null, 0);
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Returns false when the timer already fired or was cancelled.
+         */
+        public boolean cancel() {
+            if (next == this) {
+                return false;
+            }
+            unlink();
+            wheel.size--;
+            return true;
+        }
+
+        private void linkBefore(Timeout<T> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+}
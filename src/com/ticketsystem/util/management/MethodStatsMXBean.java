@@ -0,0 +1,20 @@
+package com.ticketsystem.util.management;
+
+/**
+ * JMX view of one instrumented method. Latencies are in microseconds.
+ */
+public interface MethodStatsMXBean {
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -5,5 +5,12 @@
  * 
  */
 module ticket_reservation_system {
+    requires java.management;
     requires java.sql;
+    requires jdk.httpserver;
+    requires jdk.management;
+
+    // JMX reads MXBean attributes through a trampoline in an unnamed module, so a qualified
+    // export to java.management is not enough
+    exports com.ticketsystem.util.management;
 }
\ No newline at end of file